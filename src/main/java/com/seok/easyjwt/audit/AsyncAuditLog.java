@@ -0,0 +1,184 @@
+package com.seok.easyjwt.audit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records {@link AuditEvent}s without adding I/O latency to request threads.
+ * <p>
+ * Request threads publish events into a bounded, lock-free ring buffer, which costs a CAS and an array write.
+ * A single writer thread drains the buffer and hands the events to the {@link AuditSink} in batches,
+ * so a slow sink delays the audit trail, not the requests.
+ * <p>
+ * When the buffer is full, the {@link OverflowPolicy} decides whether events are dropped (and counted) or
+ * whether publishers wait for room. {@link #close()} writes the remaining events and closes the sink.
+ * <p>
+ * Usage:
+ * <pre>
+ *     AsyncAuditLog auditLog = new AsyncAuditLog(new RollingFileAuditSink(path, maxFileSize, maxHistory),
+ *             8192, 256, AsyncAuditLog.OverflowPolicy.DROP);
+ *     jwtTokenProvider.setAuditLog(auditLog);
+ * </pre>
+ */
+public class AsyncAuditLog implements AutoCloseable {
+
+    /**
+     * What happens to events published while the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** The event is discarded and counted in {@link #getDroppedCount()}; publishers never wait. */
+        DROP,
+        /** The publisher waits until the writer frees room, so no event is lost while the log is open. */
+        BLOCK
+    }
+
+    private static final long IDLE_PARK_NANOS = 10_000_000L; // 10 ms
+    private static final long BLOCK_PARK_NANOS = 100_000L; // 0.1 ms
+
+    private final AuditSink sink;
+    private final MpscRingBuffer<AuditEvent> buffer;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Thread writer;
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new {@code AsyncAuditLog} and starts its writer thread.
+     *
+     * @param sink           the sink receiving the batches
+     * @param capacity       the number of events the buffer holds, rounded up to a power of two
+     * @param batchSize      the maximum number of events handed to the sink at once
+     * @param overflowPolicy what happens to events published while the buffer is full
+     */
+    public AsyncAuditLog(AuditSink sink, int capacity, int batchSize, OverflowPolicy overflowPolicy) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Audit batch size must be positive");
+        }
+        this.sink = sink;
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.writer = new Thread(this::drainLoop, "easy-jwt-audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Publishes an event to the audit log.
+     * <p>
+     * An event published concurrently with {@link #close()} may arrive after the writer has stopped; it is then
+     * reported as dropped, even in the rare case that the writer still wrote it.
+     *
+     * @param event the event to record
+     * @return {@code true} if the event was accepted, {@code false} if it was dropped
+     */
+    public boolean publish(AuditEvent event) {
+        while (!closed) {
+            if (buffer.offer(event)) {
+                // Events offered before close() are drained by the writer; later ones may never be written
+                if (!closed) {
+                    return true;
+                }
+                break;
+            }
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                break;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        droppedCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Returns the number of events dropped because the buffer was full or the log was closed.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Returns the number of events lost because the sink failed to write their batch.
+     *
+     * @return the number of events lost by the sink
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Stops accepting events, writes the events still in the buffer and closes the sink if it is {@link AutoCloseable}.
+     * <p>
+     * The remaining events are written even if the calling thread is interrupted, whose interrupt status is then
+     * restored once the writer has finished.
+     *
+     * @throws IllegalStateException if the sink can't be closed
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                // Closing the sink before the writer is done would lose events
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (sink instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) sink).close();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not close audit sink", e);
+            }
+        }
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(Math.min(batchSize, buffer.capacity()));
+        while (true) {
+            // Read before draining, so events published before close() are still written
+            boolean stopping = closed;
+
+            AuditEvent event;
+            while (batch.size() < batchSize && (event = buffer.poll()) != null) {
+                batch.add(event);
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            } else if (stopping) {
+                return;
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            sink.write(batch);
+        } catch (Exception e) {
+            // The writer must survive sink failures, the next batch may succeed
+            failedCount.addAndGet(batch.size());
+        }
+    }
+}
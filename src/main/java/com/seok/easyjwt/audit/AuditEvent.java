@@ -0,0 +1,85 @@
+package com.seok.easyjwt.audit;
+
+/**
+ * An immutable record of a security-relevant token operation.
+ * <p>
+ * Events are created on request threads, so they only capture plain values; formatting is left to the
+ * {@link AuditSink}, which runs on the audit writer thread.
+ */
+public final class AuditEvent {
+
+    /**
+     * The kind of token operation being audited.
+     */
+    public enum Type {
+        /** A token was issued. */
+        TOKEN_ISSUED,
+        /** An access token was renewed, e.g. by a sliding session. */
+        TOKEN_RENEWED,
+        /** A single-use purpose token was redeemed. */
+        TOKEN_CONSUMED,
+        /** A token was rejected as invalid, expired or of the wrong type. */
+        VERIFICATION_FAILED
+    }
+
+    private final Type type;
+    private final long timestamp;
+    private final String subject;
+    private final String tokenType;
+    private final String detail;
+
+    /**
+     * Constructs a new {@code AuditEvent} happening now.
+     *
+     * @param type      the kind of operation
+     * @param subject   the subject of the token, or {@code null} if unknown (e.g. for unverifiable tokens)
+     * @param tokenType the type of the token, or {@code null} if unknown
+     * @param detail    additional information such as the rejection reason, or {@code null}
+     */
+    public AuditEvent(Type type, String subject, String tokenType, String detail) {
+        this(type, System.currentTimeMillis(), subject, tokenType, detail);
+    }
+
+    /**
+     * Constructs a new {@code AuditEvent}.
+     *
+     * @param type      the kind of operation
+     * @param timestamp the time of the operation, in milliseconds since the epoch
+     * @param subject   the subject of the token, or {@code null} if unknown
+     * @param tokenType the type of the token, or {@code null} if unknown
+     * @param detail    additional information such as the rejection reason, or {@code null}
+     */
+    public AuditEvent(Type type, long timestamp, String subject, String tokenType, String detail) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.subject = subject;
+        this.tokenType = tokenType;
+        this.detail = detail;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    @Override
+    public String toString() {
+        return "AuditEvent{type=" + type + ", timestamp=" + timestamp + ", subject=" + subject
+                + ", tokenType=" + tokenType + ", detail=" + detail + "}";
+    }
+}
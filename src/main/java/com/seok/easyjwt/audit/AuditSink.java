@@ -0,0 +1,25 @@
+package com.seok.easyjwt.audit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of audit events, e.g. a file, a database table or a message broker.
+ * <p>
+ * Sinks are only called from the single writer thread of {@link AsyncAuditLog}, with events batched in
+ * publication order, so they don't need to be thread-safe and their latency never reaches request threads.
+ * Sinks implementing {@link AutoCloseable} are closed when the audit log is closed.
+ * <p>
+ * Usage:
+ * - Provide a bean of this type to replace the default {@link RollingFileAuditSink}.
+ */
+public interface AuditSink {
+
+    /**
+     * Writes a batch of events.
+     *
+     * @param events the events, in publication order; the list is reused after the call returns
+     * @throws IOException if the events could not be written; the batch is then counted as lost
+     */
+    void write(List<AuditEvent> events) throws IOException;
+}
@@ -0,0 +1,86 @@
+package com.seok.easyjwt.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free ring buffer for many producers and a single consumer.
+ * <p>
+ * Each slot carries a sequence number telling whether it is free for the producer claiming position
+ * {@code p} (sequence {@code p}) or filled for the consumer reading position {@code p} (sequence {@code p + 1}).
+ * Producers claim positions with a CAS on the tail and publish the element with a volatile sequence write,
+ * so a full buffer is detected without locking and {@link #offer(Object)} never blocks.
+ *
+ * @param <E> the element type
+ */
+final class MpscRingBuffer<E> {
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+
+    // Only accessed by the consumer thread
+    private long head;
+
+    MpscRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Ring buffer capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.elements = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is room.
+     *
+     * @return {@code false} if the buffer is full
+     */
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    // Publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // The slot still holds the element of the previous lap
+                return false;
+            }
+            // Another producer claimed the position first, retry with the new tail
+        }
+    }
+
+    /**
+     * Removes the oldest element. Must only be called from the consumer thread.
+     *
+     * @return the element, or {@code null} if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = (E) elements[index];
+        elements[index] = null;
+        // Frees the slot for the producer of the next lap
+        sequences.set(index, head + mask + 1);
+        head++;
+        return element;
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+}
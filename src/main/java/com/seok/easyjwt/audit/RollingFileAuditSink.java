@@ -0,0 +1,154 @@
+package com.seok.easyjwt.audit;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * An {@link AuditSink} appending events as JSON lines to a file, rolled over by size.
+ * <p>
+ * Each event is written as one line, e.g.
+ * {@code {"time":"2024-01-01T00:00:00Z","type":"TOKEN_ISSUED","sub":"user","tokenType":"ACCESS"}}.
+ * Every batch is flushed to the file before the next one is written. When the file exceeds the maximum size,
+ * it is renamed to {@code <file>.1}, older files are shifted ({@code .1} to {@code .2}, ...) and files beyond
+ * the maximum history are deleted.
+ */
+public class RollingFileAuditSink implements AuditSink, AutoCloseable {
+
+    private final Path path;
+    private final long maxFileSize;
+    private final int maxHistory;
+
+    private Writer writer;
+    private long fileSize;
+
+    /**
+     * Opens the audit file for appending, creating it and its directory if needed.
+     *
+     * @param path        the audit file
+     * @param maxFileSize the size (in bytes) after which the file is rolled over
+     * @param maxHistory  the number of rolled over files kept
+     * @throws IOException if the file can't be opened
+     */
+    public RollingFileAuditSink(Path path, long maxFileSize, int maxHistory) throws IOException {
+        if (maxFileSize <= 0) {
+            throw new IllegalArgumentException("Audit file size must be positive");
+        }
+        this.path = path;
+        this.maxFileSize = maxFileSize;
+        this.maxHistory = maxHistory;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        open();
+    }
+
+    @Override
+    public synchronized void write(List<AuditEvent> events) throws IOException {
+        if (writer == null) {
+            throw new IOException("Audit file " + path + " is closed");
+        }
+        for (AuditEvent event : events) {
+            writeEvent(event);
+            if (fileSize >= maxFileSize) {
+                roll();
+            }
+        }
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void writeEvent(AuditEvent event) throws IOException {
+        StringBuilder line = new StringBuilder(128);
+        try (JsonWriter json = new JsonWriter(new StringBuilderWriter(line))) {
+            json.beginObject();
+            json.name("time").value(Instant.ofEpochMilli(event.getTimestamp()).toString());
+            json.name("type").value(event.getType().name());
+            if (event.getSubject() != null) {
+                json.name("sub").value(event.getSubject());
+            }
+            if (event.getTokenType() != null) {
+                json.name("tokenType").value(event.getTokenType());
+            }
+            if (event.getDetail() != null) {
+                json.name("detail").value(event.getDetail());
+            }
+            json.endObject();
+        }
+        line.append('\n');
+
+        writer.append(line);
+        // Audit lines are ASCII apart from user names, so the length is a close enough estimate for rolling
+        fileSize += line.length();
+    }
+
+    private void roll() throws IOException {
+        writer.close();
+        if (maxHistory > 0) {
+            Files.deleteIfExists(rolled(maxHistory));
+            for (int i = maxHistory - 1; i >= 1; i--) {
+                if (Files.exists(rolled(i))) {
+                    Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(path);
+        }
+        open();
+    }
+
+    private void open() throws IOException {
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        fileSize = Files.size(path);
+    }
+
+    private Path rolled(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+
+    /**
+     * Lets the {@link JsonWriter} format a line into a plain builder, without the synchronization of StringWriter.
+     */
+    private static final class StringBuilderWriter extends Writer {
+
+        private final StringBuilder builder;
+
+        StringBuilderWriter(StringBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            builder.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(String string, int offset, int length) {
+            builder.append(string, offset, offset + length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
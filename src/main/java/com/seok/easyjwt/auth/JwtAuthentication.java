@@ -0,0 +1,69 @@
+package com.seok.easyjwt.auth;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * An authenticated {@link UsernamePasswordAuthenticationToken} carrying the verified claims of its token, and whose
+ * authorities are read from the principal on demand.
+ * <p>
+ * The claims let application code read custom claims (tenant, scopes, ...) without parsing and verifying the token
+ * a second time, see {@link com.seok.easyjwt.user.CurrentUserService#getCurrentClaims()}.
+ * <p>
+ * Unlike a regular token, the authorities are not copied at construction time. Paired with a
+ * {@link LazyJwtUserDetails}, the user is therefore only loaded when something actually checks the authorities.
+ * <p>
+ * The claims are not serialized, so they are only available in the request the token was verified in.
+ */
+public class JwtAuthentication extends UsernamePasswordAuthenticationToken {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Claims claims;
+
+    /**
+     * Constructs a new authenticated {@code JwtAuthentication} without claims.
+     *
+     * @param principal   the authenticated user
+     * @param credentials the token the user was authenticated with
+     */
+    public JwtAuthentication(UserDetails principal, Object credentials) {
+        this(principal, credentials, null);
+    }
+
+    /**
+     * Constructs a new authenticated {@code JwtAuthentication}.
+     *
+     * @param principal   the authenticated user
+     * @param credentials the token the user was authenticated with
+     * @param claims      the verified claims of the token
+     */
+    public JwtAuthentication(UserDetails principal, Object credentials, Claims claims) {
+        super(principal, credentials, Collections.emptyList());
+        this.claims = claims;
+    }
+
+    /**
+     * Returns the verified claims of the token the user was authenticated with.
+     *
+     * @return the claims, or {@code null} if they are not available
+     */
+    public Claims getClaims() {
+        return claims;
+    }
+
+    /**
+     * Returns the authorities of the principal.
+     *
+     * @return the authorities granted to the principal
+     */
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return Collections.unmodifiableCollection(((UserDetails) getPrincipal()).getAuthorities());
+    }
+}
@@ -16,6 +16,9 @@ import java.util.Collection;
  * Key Features:
  * - Maps {@link JwtUser} details (e.g., username and authorities) to Spring Security's {@link UserDetails}.
  * - Provides default values for account status methods (e.g., non-expired, non-locked).
+ * - Serializes into a compact, versioned form; with a {@link com.seok.easyjwt.user.SimpleJwtUser}, only the
+ *   username and authority names are written. Other users keep their own serialized form, so they only
+ *   benefit if they implement {@link java.io.Externalizable}.
  */
 public class JwtUserDetails implements UserDetails, Serializable {
 
@@ -119,4 +122,13 @@ public class JwtUserDetails implements UserDetails, Serializable {
     public JwtUser getJwtUser() {
         return jwtUser;
     }
-}
\ No newline at end of file
+
+    /**
+     * Replaces the details with their compact serialized form.
+     *
+     * @return the serialized form
+     */
+    private Object writeReplace() {
+        return new SerializedJwtUserDetails(jwtUser);
+    }
+}
@@ -0,0 +1,80 @@
+package com.seok.easyjwt.auth;
+
+import com.seok.easyjwt.user.SimpleJwtUser;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes user details into a compact, versioned binary form, e.g. for distributed caches or session stores
+ * that take raw bytes.
+ * <p>
+ * Only the username and the authority names are kept, so decoded details always wrap a {@link SimpleJwtUser}.
+ * Layout: {@code [byte version][UTF username][int count][count x UTF authority]}, with UTF strings written
+ * as by {@link DataOutputStream#writeUTF(String)}.
+ */
+public final class JwtUserDetailsCodec {
+
+    private static final byte VERSION = 1;
+
+    private JwtUserDetailsCodec() {
+    }
+
+    /**
+     * Encodes the username and authority names of user details.
+     *
+     * @param userDetails the user details to encode
+     * @return the encoded bytes
+     */
+    public static byte[] encode(UserDetails userDetails) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(userDetails.getUsername());
+            out.writeInt(userDetails.getAuthorities().size());
+            for (GrantedAuthority authority : userDetails.getAuthorities()) {
+                out.writeUTF(authority.getAuthority());
+            }
+        } catch (IOException e) {
+            // Not thrown by in-memory streams
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes user details encoded by {@link #encode(UserDetails)}.
+     *
+     * @param encoded the encoded bytes
+     * @return the decoded user details, wrapping a {@link SimpleJwtUser}
+     * @throws IllegalArgumentException if the bytes are not a supported encoding
+     */
+    public static JwtUserDetails decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported user details encoding version: " + version);
+            }
+            String username = in.readUTF();
+            int count = in.readInt();
+            if (count < 0 || count > encoded.length) {
+                throw new IllegalArgumentException("Invalid authority count: " + count);
+            }
+            List<String> authorities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                authorities.add(in.readUTF());
+            }
+            return new JwtUserDetails(SimpleJwtUser.of(username, authorities));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid user details encoding", e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.seok.easyjwt.auth;
 
+import com.seok.easyjwt.jfr.UserLoadEvent;
 import com.seok.easyjwt.user.JwtUser;
+import com.seok.easyjwt.user.JwtUserCache;
 import com.seok.easyjwt.user.QueryJwtUserService;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,11 +17,16 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
  * <p>
  * The class is marked with {@link ConditionalOnMissingBean}, allowing users to override this service
  * with their own implementation if needed.
+ * <p>
+ * With a {@link JwtUserCache}, users are served from the cache and only queried on misses.
+ * <p>
+ * Every lookup emits a {@link UserLoadEvent} JFR event while a recording has it enabled.
  */
 @ConditionalOnMissingBean(UserDetailsService.class)
 public class JwtUserDetailsService implements UserDetailsService {
 
     private final QueryJwtUserService queryJwtUserService;
+    private final JwtUserCache jwtUserCache;
 
     /**
      * Constructs a new {@code JwtUserDetailsService} with the specified {@link QueryJwtUserService}.
@@ -27,7 +34,18 @@ public class JwtUserDetailsService implements UserDetailsService {
      * @param queryJwtUserService the service used to retrieve user details by username
      */
     public JwtUserDetailsService(QueryJwtUserService queryJwtUserService) {
+        this(queryJwtUserService, null);
+    }
+
+    /**
+     * Constructs a new {@code JwtUserDetailsService} serving users from a cache.
+     *
+     * @param queryJwtUserService the service used to retrieve user details by username
+     * @param jwtUserCache        the cache in front of the query service, or {@code null} to query every time
+     */
+    public JwtUserDetailsService(QueryJwtUserService queryJwtUserService, JwtUserCache jwtUserCache) {
         this.queryJwtUserService = queryJwtUserService;
+        this.jwtUserCache = jwtUserCache;
     }
 
     /**
@@ -42,9 +60,31 @@ public class JwtUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        JwtUser jwtUser = queryJwtUserService.execute(username)
-                .orElseThrow(() -> new UsernameNotFoundException("JwtUser Not Found"));
+        UserLoadEvent event = new UserLoadEvent();
+        if (!event.isEnabled()) {
+            return new JwtUserDetails(findUser(username));
+        }
 
-        return new JwtUserDetails(jwtUser);
+        event.begin();
+        String outcome = "FAILED";
+        try {
+            JwtUser jwtUser = findUser(username);
+            outcome = "FOUND";
+            return new JwtUserDetails(jwtUser);
+        } catch (UsernameNotFoundException e) {
+            outcome = "NOT_FOUND";
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.setOutcome(outcome);
+                event.setSubject(username);
+                event.commit();
+            }
+        }
+    }
+
+    private JwtUser findUser(String username) {
+        return (jwtUserCache != null ? jwtUserCache.get(username) : queryJwtUserService.execute(username))
+                .orElseThrow(() -> new UsernameNotFoundException("JwtUser Not Found"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.seok.easyjwt.auth;
+
+import com.seok.easyjwt.user.JwtUser;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * A {@link JwtUserDetails} that defers loading the {@link JwtUser} until it is actually needed.
+ * <p>
+ * The username is known up front from the token subject, so endpoints that only need the
+ * authenticated subject never trigger a user query. The {@link JwtUser} is loaded on the first call to
+ * {@link #getJwtUser()} or {@link #getAuthorities()} and memoized for the lifetime of this object,
+ * which is the current request.
+ * <p>
+ * Note that a missing user is only reported (e.g. as a
+ * {@link org.springframework.security.core.userdetails.UsernameNotFoundException}) when the user is first accessed.
+ */
+public class LazyJwtUserDetails extends JwtUserDetails {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String username;
+    private final transient Supplier<JwtUser> loader;
+    private volatile JwtUser jwtUser;
+
+    /**
+     * Constructs a new {@code LazyJwtUserDetails}.
+     *
+     * @param username the username, taken from the token subject
+     * @param loader   loads the {@link JwtUser} on first access
+     */
+    public LazyJwtUserDetails(String username, Supplier<JwtUser> loader) {
+        super(null);
+        this.username = username;
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the username without loading the user.
+     *
+     * @return the username
+     */
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Returns the authorities granted to the user, loading the user if necessary.
+     *
+     * @return the authorities granted to the user
+     */
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return getJwtUser().getAuthorities();
+    }
+
+    /**
+     * Returns the underlying {@link JwtUser}, loading it on first access.
+     *
+     * @return the {@link JwtUser}
+     */
+    @Override
+    public JwtUser getJwtUser() {
+        JwtUser user = jwtUser;
+        if (user == null) {
+            synchronized (this) {
+                user = jwtUser;
+                if (user == null) {
+                    user = loader.get();
+                    jwtUser = user;
+                }
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Returns whether the {@link JwtUser} has been loaded already.
+     *
+     * @return {@code true} if the user has been loaded
+     */
+    public boolean isLoaded() {
+        return jwtUser != null;
+    }
+
+    /**
+     * Serializes the resolved form, since the loader can't be serialized.
+     *
+     * @return an eager {@link JwtUserDetails} holding the loaded user
+     */
+    private Object writeReplace() {
+        return new JwtUserDetails(getJwtUser());
+    }
+}
@@ -0,0 +1,72 @@
+package com.seok.easyjwt.auth;
+
+import com.seok.easyjwt.user.JwtUser;
+import com.seok.easyjwt.user.SimpleJwtUser;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * The serialized form of {@link JwtUserDetails}.
+ * <p>
+ * Instead of the default form, which repeats class descriptors for the details and every authority, the
+ * details are written as a version byte followed by the user. {@link SimpleJwtUser}s are written inline as
+ * a username and authority names; other users are written as objects, with their own serialized form, which is
+ * only compact if they implement {@link Externalizable} (see {@link SimpleJwtUser#writeAuthorities}).
+ */
+final class SerializedJwtUserDetails implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+    private static final byte VERSION = 1;
+    private static final byte SIMPLE_USER = 1;
+    private static final byte OBJECT_USER = 2;
+
+    private JwtUser jwtUser;
+
+    /**
+     * Constructs an empty form. Required by {@link Externalizable}.
+     */
+    public SerializedJwtUserDetails() {
+    }
+
+    SerializedJwtUserDetails(JwtUser jwtUser) {
+        this.jwtUser = jwtUser;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(VERSION);
+        if (jwtUser instanceof SimpleJwtUser) {
+            out.writeByte(SIMPLE_USER);
+            ((SimpleJwtUser) jwtUser).writeExternal(out);
+        } else {
+            out.writeByte(OBJECT_USER);
+            out.writeObject(jwtUser);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new InvalidObjectException("Unsupported JwtUserDetails version: " + version);
+        }
+        byte kind = in.readByte();
+        if (kind == SIMPLE_USER) {
+            SimpleJwtUser user = new SimpleJwtUser();
+            user.readExternal(in);
+            jwtUser = user;
+        } else if (kind == OBJECT_USER) {
+            jwtUser = (JwtUser) in.readObject();
+        } else {
+            throw new InvalidObjectException("Unknown JwtUser encoding: " + kind);
+        }
+    }
+
+    private Object readResolve() {
+        return new JwtUserDetails(jwtUser);
+    }
+}
@@ -0,0 +1,115 @@
+package com.seok.easyjwt.auth;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts user lookups before the token signature has been verified, so both overlap.
+ * <p>
+ * The subject is read from the unverified payload, which means anyone can trigger a lookup with a forged
+ * token. Lookups are therefore bounded: at most {@code maxConcurrent} of them run at once, and when all
+ * permits are taken {@link #start(String)} declines and the caller falls back to a regular lookup after
+ * verification. Results of tokens failing verification are discarded.
+ * <p>
+ * This pays off when user lookups are remote calls and signatures are expensive to check (RSA, ECDSA or
+ * large payloads). The lookup pool is owned by this class; {@link #close()} shuts it down.
+ */
+public class SpeculativeUserLookup implements AutoCloseable {
+
+    private final UserDetailsService userDetailsService;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a new {@code SpeculativeUserLookup}.
+     *
+     * @param userDetailsService the service loading the users
+     * @param maxConcurrent      the maximum number of speculative lookups in flight
+     */
+    public SpeculativeUserLookup(UserDetailsService userDetailsService, int maxConcurrent) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Speculative lookup concurrency must be positive");
+        }
+        this.userDetailsService = userDetailsService;
+        this.permits = new Semaphore(maxConcurrent);
+        this.executor = Executors.newFixedThreadPool(maxConcurrent, new LookupThreadFactory());
+    }
+
+    /**
+     * Starts loading a user in the background.
+     *
+     * @param username the unverified username, may be {@code null}
+     * @return the pending lookup, or {@code null} if the username is missing or too many lookups are in flight
+     */
+    public CompletableFuture<UserDetails> start(String username) {
+        if (username == null || !permits.tryAcquire()) {
+            return null;
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return userDetailsService.loadUserByUsername(username);
+                } finally {
+                    permits.release();
+                }
+            }, executor);
+        } catch (RuntimeException e) {
+            // Rejected after close()
+            permits.release();
+            return null;
+        }
+    }
+
+    /**
+     * Waits for a lookup started by {@link #start(String)}.
+     *
+     * @param lookup the pending lookup
+     * @return the loaded user
+     * @throws RuntimeException the exception thrown by the lookup, e.g. a
+     *                          {@link org.springframework.security.core.userdetails.UsernameNotFoundException}
+     */
+    public UserDetails join(CompletableFuture<UserDetails> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        } catch (CancellationException e) {
+            throw new IllegalStateException("Speculative user lookup was cancelled", e);
+        }
+    }
+
+    /**
+     * Shuts down the lookup pool.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static final class LookupThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "easy-jwt-speculative-lookup-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.seok.easyjwt.client;
+
+import com.seok.easyjwt.jwt.JwtTokenProvider;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caches the access tokens a service mints for its outgoing calls.
+ * <p>
+ * Tokens are cached per subject and claims, and renewed on a background thread once they enter the renewal
+ * window, while the current token keeps being handed out. Callers therefore only wait for signing when no
+ * usable token exists yet, e.g. on the first call; concurrent callers for the same key then wait for a single
+ * signature instead of minting one each. Reusing tokens also lets downstream services cache verified tokens.
+ * <p>
+ * A token is never handed out during the last second of its lifetime, which is left for the call to reach the
+ * downstream service. The renewal window should therefore be well above a second.
+ * <p>
+ * Usage:
+ * - Create the cache once per service, e.g. with {@code easy-jwt.service-token.enabled}, and share it.
+ * - Add a {@link ServiceTokenInterceptor} to the {@code RestTemplate} or {@code RestClient} making the calls.
+ */
+public class ServiceTokenCache implements AutoCloseable {
+
+    private static final long EXPIRY_MARGIN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final TokenMinter minter;
+    private final long lifetimeNanos;
+    private final long renewBeforeNanos;
+    private final int maxSize;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ExecutorService renewer;
+
+    /**
+     * Constructs a new {@code ServiceTokenCache} minting access tokens with a {@link JwtTokenProvider}.
+     *
+     * @param jwtTokenProvider the provider minting the tokens
+     * @param lifetime         the lifetime of minted tokens, i.e. the access token expiration
+     * @param renewBefore      how long before expiry tokens are renewed in the background
+     * @param maxSize          the maximum number of cached tokens
+     */
+    public ServiceTokenCache(JwtTokenProvider jwtTokenProvider, Duration lifetime, Duration renewBefore, int maxSize) {
+        this(jwtTokenProvider::generateAccessToken, lifetime, renewBefore, maxSize);
+    }
+
+    /**
+     * Constructs a new {@code ServiceTokenCache}.
+     *
+     * @param minter      mints the tokens, e.g. for a tenant
+     * @param lifetime    the lifetime of minted tokens
+     * @param renewBefore how long before expiry tokens are renewed in the background
+     * @param maxSize     the maximum number of cached tokens
+     * @throws IllegalArgumentException if the renewal window isn't shorter than the lifetime
+     */
+    public ServiceTokenCache(TokenMinter minter, Duration lifetime, Duration renewBefore, int maxSize) {
+        if (renewBefore.isNegative() || renewBefore.compareTo(lifetime) >= 0) {
+            throw new IllegalArgumentException("Service token renewal window must be shorter than the token lifetime");
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Service token cache size must be positive");
+        }
+        this.minter = minter;
+        this.lifetimeNanos = lifetime.toNanos();
+        this.renewBeforeNanos = renewBefore.toNanos();
+        this.maxSize = maxSize;
+        // Renewals are coalesced per key, so a single thread is enough to keep up
+        this.renewer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "easy-jwt-service-token-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns a token for a subject and claims, minting one if no usable token is cached.
+     *
+     * @param subject the subject of the token
+     * @param claims  the claims of the token, may be {@code null}
+     * @return the token
+     */
+    public String getToken(String subject, Map<String, Object> claims) {
+        Key key = new Key(subject, claims);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(key, k -> new Entry());
+            if (entries.size() > maxSize) {
+                evict();
+            }
+        }
+
+        long now = System.nanoTime();
+        Token token = entry.token;
+        if (token != null && now - token.expiresAt < 0) {
+            if (now - token.renewAt >= 0) {
+                entry.refresh(key, true);
+            }
+            return token.value;
+        }
+        return await(entry.refresh(key, false)).value;
+    }
+
+    /**
+     * Drops the token cached for a subject and claims, e.g. after a downstream service rejected it.
+     *
+     * @param subject the subject of the token
+     * @param claims  the claims of the token, may be {@code null}
+     */
+    public void invalidate(String subject, Map<String, Object> claims) {
+        entries.remove(new Key(subject, claims));
+    }
+
+    /**
+     * Returns the number of cached tokens.
+     *
+     * @return the number of cached tokens
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Stops the renewal thread.
+     */
+    @Override
+    public void close() {
+        renewer.shutdownNow();
+    }
+
+    /**
+     * Drops expired tokens, then arbitrary ones if the cache is still full.
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.token != null && now - entry.token.expiresAt >= 0);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Waits for a pending mint, rethrowing the exception of the minter.
+     */
+    private static Token await(CompletableFuture<Token> mint) {
+        try {
+            return mint.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private Token mint(Key key) {
+        long mintedAt = System.nanoTime();
+        String value = minter.mint(key.subject, key.claims);
+        return new Token(value, mintedAt + lifetimeNanos - renewBeforeNanos, mintedAt + lifetimeNanos - EXPIRY_MARGIN_NANOS);
+    }
+
+    /**
+     * Mints a token.
+     */
+    @FunctionalInterface
+    public interface TokenMinter {
+
+        /**
+         * Mints a token.
+         *
+         * @param subject the subject of the token
+         * @param claims  the claims of the token
+         * @return the token
+         */
+        String mint(String subject, Map<String, Object> claims);
+    }
+
+    private final class Entry {
+
+        private final AtomicReference<CompletableFuture<Token>> pending = new AtomicReference<>();
+        private volatile Token token;
+
+        /**
+         * Starts minting a token unless a mint is already pending, and returns the pending mint.
+         * Without {@code async}, the token is minted on the calling thread.
+         */
+        CompletableFuture<Token> refresh(Key key, boolean async) {
+            while (true) {
+                CompletableFuture<Token> current = pending.get();
+                if (current != null) {
+                    return current;
+                }
+                CompletableFuture<Token> created = new CompletableFuture<>();
+                if (pending.compareAndSet(null, created)) {
+                    if (async) {
+                        try {
+                            renewer.execute(() -> complete(key, created));
+                        } catch (RejectedExecutionException e) {
+                            // Closed, callers keep the current token until it expires
+                            pending.set(null);
+                        }
+                    } else {
+                        complete(key, created);
+                    }
+                    return created;
+                }
+            }
+        }
+
+        private void complete(Key key, CompletableFuture<Token> future) {
+            try {
+                Token minted = mint(key);
+                token = minted;
+                pending.set(null);
+                future.complete(minted);
+            } catch (RuntimeException | Error e) {
+                // The next call retries
+                pending.set(null);
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class Token {
+
+        private final String value;
+        private final long renewAt;
+        private final long expiresAt;
+
+        Token(String value, long renewAt, long expiresAt) {
+            this.value = value;
+            this.renewAt = renewAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Key {
+
+        private final String subject;
+        private final Map<String, Object> claims;
+        private final int hash;
+
+        Key(String subject, Map<String, Object> claims) {
+            this.subject = Objects.requireNonNull(subject, "subject");
+            this.claims = claims == null || claims.isEmpty()
+                    ? Collections.emptyMap()
+                    : Collections.unmodifiableMap(new HashMap<>(claims));
+            this.hash = 31 * subject.hashCode() + this.claims.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hash == that.hash && subject.equals(that.subject) && claims.equals(that.claims);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
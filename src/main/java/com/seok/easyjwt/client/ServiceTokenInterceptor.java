@@ -0,0 +1,68 @@
+package com.seok.easyjwt.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A {@link ClientHttpRequestInterceptor} adding a service token to outgoing requests.
+ * <p>
+ * Tokens come from a shared {@link ServiceTokenCache}, so requests reuse a cached token instead of signing a
+ * new one each. Requests that already carry the header, e.g. to forward the token of the current user, are
+ * left untouched.
+ * <p>
+ * Usage:
+ * - {@code RestClient.builder().requestInterceptor(new ServiceTokenInterceptor(cache, "orders-service", Map.of()))}
+ * - {@code restTemplate.getInterceptors().add(new ServiceTokenInterceptor(cache, "orders-service", Map.of()))}
+ */
+public class ServiceTokenInterceptor implements ClientHttpRequestInterceptor {
+
+    private final ServiceTokenCache serviceTokenCache;
+    private final String subject;
+    private final Map<String, Object> claims;
+    private final String headerName;
+    private final String tokenPrefix;
+
+    /**
+     * Constructs a new {@code ServiceTokenInterceptor} sending the token as a bearer token in the
+     * {@code Authorization} header.
+     *
+     * @param serviceTokenCache the cache providing the tokens
+     * @param subject           the subject of the tokens, typically the name of the calling service
+     * @param claims            the claims of the tokens, may be {@code null}
+     */
+    public ServiceTokenInterceptor(ServiceTokenCache serviceTokenCache, String subject, Map<String, Object> claims) {
+        this(serviceTokenCache, subject, claims, HttpHeaders.AUTHORIZATION, "Bearer ");
+    }
+
+    /**
+     * Constructs a new {@code ServiceTokenInterceptor}.
+     *
+     * @param serviceTokenCache the cache providing the tokens
+     * @param subject           the subject of the tokens, typically the name of the calling service
+     * @param claims            the claims of the tokens, may be {@code null}
+     * @param headerName        the header carrying the token
+     * @param tokenPrefix       the prefix preceding the token in the header (e.g. "Bearer ")
+     */
+    public ServiceTokenInterceptor(ServiceTokenCache serviceTokenCache, String subject, Map<String, Object> claims,
+                                   String headerName, String tokenPrefix) {
+        this.serviceTokenCache = serviceTokenCache;
+        this.subject = subject;
+        this.claims = claims;
+        this.headerName = headerName;
+        this.tokenPrefix = tokenPrefix;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (!request.getHeaders().containsKey(headerName)) {
+            request.getHeaders().set(headerName, tokenPrefix + serviceTokenCache.getToken(subject, claims));
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -1,14 +1,39 @@
 package com.seok.easyjwt.configuration;
 
+import com.seok.easyjwt.audit.AsyncAuditLog;
+import com.seok.easyjwt.audit.AuditSink;
+import com.seok.easyjwt.audit.RollingFileAuditSink;
 import com.seok.easyjwt.auth.JwtUserDetailsService;
+import com.seok.easyjwt.auth.SpeculativeUserLookup;
+import com.seok.easyjwt.client.ServiceTokenCache;
+import com.seok.easyjwt.client.ServiceTokenInterceptor;
+import com.seok.easyjwt.connection.ConnectionAuthRegistry;
+import com.seok.easyjwt.core.JwtIssuer;
+import com.seok.easyjwt.core.JwtVerifier;
+import com.seok.easyjwt.introspect.TokenIntrospectionFilter;
+import com.seok.easyjwt.introspect.TokenIntrospector;
+import com.seok.easyjwt.jti.InMemoryJtiStore;
+import com.seok.easyjwt.jti.JtiStore;
+import com.seok.easyjwt.jti.MappedJtiStore;
 import com.seok.easyjwt.jwt.JwtFilter;
 import com.seok.easyjwt.jwt.JwtProperties;
+import com.seok.easyjwt.jwt.JwtTenantRegistry;
 import com.seok.easyjwt.jwt.JwtTokenProvider;
+import com.seok.easyjwt.jwt.SlidingSessionRenewer;
+import com.seok.easyjwt.session.SessionRegistry;
+import com.seok.easyjwt.session.SessionStore;
+import com.seok.easyjwt.user.BatchingQueryJwtUserService;
 import com.seok.easyjwt.user.CurrentUserService;
 import com.seok.easyjwt.user.JwtUser;
+import com.seok.easyjwt.user.JwtUserCache;
 import com.seok.easyjwt.user.QueryJwtUserService;
+import com.seok.easyjwt.version.InMemoryTokenVersionSource;
+import com.seok.easyjwt.version.TokenVersionSource;
+import com.seok.easyjwt.web.CurrentClaimsArgumentResolver;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
@@ -16,6 +41,10 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.nio.file.Paths;
+
 /**
  * Auto-configuration for the Easy-JWT library.
  * <p>
@@ -37,6 +66,10 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 @EnableConfigurationProperties(JwtProperties.class)
 public class EasyJwtAutoConfiguration {
 
+    // Shared by the user details service and the user cache, so their lookups are merged into the same batches.
+    // Not a bean, as a second QueryJwtUserService would make the application's own one ambiguous.
+    private BatchingQueryJwtUserService batchingQueryJwtUserService;
+
     /**
      * Provides a {@link QueryJwtUserService} bean.
      * <p>
@@ -58,12 +91,35 @@ public class EasyJwtAutoConfiguration {
      * This service integrates with Spring Security to load user details for authentication.
      *
      * @param queryJwtUserService the service used to fetch user details
+     * @param jwtUserCache        the user cache, if enabled
+     * @param jwtProperties       the properties for JWT configuration
      * @return the {@link JwtUserDetailsService} bean
      */
     @Bean
     @ConditionalOnMissingBean(UserDetailsService.class)
-    public JwtUserDetailsService jwtUserDetailsService(QueryJwtUserService queryJwtUserService) {
-        return new JwtUserDetailsService(queryJwtUserService);
+    public JwtUserDetailsService jwtUserDetailsService(QueryJwtUserService queryJwtUserService,
+                                                      ObjectProvider<JwtUserCache> jwtUserCache,
+                                                      JwtProperties jwtProperties) {
+        return new JwtUserDetailsService(batching(queryJwtUserService, jwtProperties), jwtUserCache.getIfAvailable());
+    }
+
+    /**
+     * Provides a {@link JwtUserCache} bean when {@code easy-jwt.user-cache.enabled} is {@code true}.
+     * <p>
+     * With {@code easy-jwt.user-cache.snapshot-path}, the cache is warmed from the snapshot written by the
+     * previous instance and writes its own snapshot when the context is closed.
+     *
+     * @param queryJwtUserService the service loading users on cache misses
+     * @param jwtProperties       the properties for JWT configuration
+     * @return the {@link JwtUserCache} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "easy-jwt.user-cache.enabled", havingValue = "true")
+    public JwtUserCache jwtUserCache(QueryJwtUserService queryJwtUserService, JwtProperties jwtProperties) {
+        JwtProperties.UserCache settings = jwtProperties.getUserCache();
+        return new JwtUserCache(batching(queryJwtUserService, jwtProperties), Duration.ofSeconds(settings.getTtl()), settings.getMaxSize(),
+                settings.getSnapshotPath() != null ? Paths.get(settings.getSnapshotPath()) : null, settings.getSnapshotSize());
     }
 
     /**
@@ -72,13 +128,32 @@ public class EasyJwtAutoConfiguration {
      * This filter intercepts HTTP requests to validate JWT tokens and set authentication
      * in the {@link org.springframework.security.core.context.SecurityContextHolder}.
      *
-     * @param jwtTokenProvider the provider responsible for token validation
+     * @param jwtTokenProvider      the provider responsible for token validation
+     * @param slidingSessionRenewer the renewer for near-expiry tokens, if sliding sessions are enabled
+     * @param jwtProperties         the properties for JWT configuration
      * @return the {@link JwtFilter} bean
      */
     @Bean
     @ConditionalOnMissingBean
-    public JwtFilter jwtFilter(JwtTokenProvider jwtTokenProvider) {
-        return new JwtFilter(jwtTokenProvider);
+    public JwtFilter jwtFilter(JwtTokenProvider jwtTokenProvider, ObjectProvider<SlidingSessionRenewer> slidingSessionRenewer,
+                               JwtProperties jwtProperties) {
+        return new JwtFilter(jwtTokenProvider, slidingSessionRenewer.getIfAvailable(), jwtProperties.isScopedPrincipal());
+    }
+
+    /**
+     * Provides a {@link SlidingSessionRenewer} bean when {@code easy-jwt.sliding-session.enabled} is {@code true}.
+     * <p>
+     * The renewer lets {@link JwtFilter} return a fresh access token for requests whose token is about to expire.
+     *
+     * @param jwtTokenProvider the provider used to mint renewed tokens
+     * @param jwtProperties    the properties for JWT configuration
+     * @return the {@link SlidingSessionRenewer} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "easy-jwt.sliding-session.enabled", havingValue = "true")
+    public SlidingSessionRenewer slidingSessionRenewer(JwtTokenProvider jwtTokenProvider, JwtProperties jwtProperties) {
+        return new SlidingSessionRenewer(jwtTokenProvider, jwtProperties.getSlidingSession());
     }
 
     /**
@@ -88,12 +163,242 @@ public class EasyJwtAutoConfiguration {
      *
      * @param userDetailsService the service used to load user details
      * @param jwtProperties      the properties for JWT configuration
+     * @param tenantRegistry     the registry of tenants tokens are dispatched to
+     * @param jtiStore           the store tracking redeemed purpose tokens
+     * @param auditLog           the audit log, if auditing is enabled
+     * @param speculativeLookup  the speculative user lookup, if enabled
+     * @param tokenVersionSource the source of user token versions, if token versions are enabled
+     * @param sessionRegistry    the registry of refresh token sessions, if sessions are enabled
      * @return the {@link JwtTokenProvider} bean
      */
     @Bean
     @ConditionalOnMissingBean
-    public JwtTokenProvider jwtTokenProvider(UserDetailsService userDetailsService, JwtProperties jwtProperties) {
-        return new JwtTokenProvider(userDetailsService, jwtProperties);
+    public JwtTokenProvider jwtTokenProvider(UserDetailsService userDetailsService, JwtProperties jwtProperties,
+                                             JwtTenantRegistry tenantRegistry, JtiStore jtiStore,
+                                             ObjectProvider<AsyncAuditLog> auditLog,
+                                             ObjectProvider<SpeculativeUserLookup> speculativeLookup,
+                                             ObjectProvider<TokenVersionSource> tokenVersionSource,
+                                             ObjectProvider<SessionRegistry> sessionRegistry) {
+        JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(userDetailsService, jwtProperties);
+        jwtTokenProvider.setTenantRegistry(tenantRegistry);
+        jwtTokenProvider.setJtiStore(jtiStore);
+        jwtTokenProvider.setAuditLog(auditLog.getIfAvailable());
+        jwtTokenProvider.setSpeculativeUserLookup(speculativeLookup.getIfAvailable());
+        if (jwtProperties.isTokenVersion()) {
+            jwtTokenProvider.setTokenVersionSource(tokenVersionSource.getIfAvailable());
+        }
+        jwtTokenProvider.setSessionRegistry(sessionRegistry.getIfAvailable());
+        return jwtTokenProvider;
+    }
+
+    /**
+     * Provides an {@link InMemoryTokenVersionSource} bean when {@code easy-jwt.token-version} is {@code true}.
+     * <p>
+     * Provide your own {@link TokenVersionSource} bean, or an {@link InMemoryTokenVersionSource} with a loader,
+     * to keep versions in a shared store.
+     *
+     * @return the {@link TokenVersionSource} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean(TokenVersionSource.class)
+    @ConditionalOnProperty(name = "easy-jwt.token-version", havingValue = "true")
+    public InMemoryTokenVersionSource tokenVersionSource() {
+        return new InMemoryTokenVersionSource();
+    }
+
+    /**
+     * Provides a {@link ConnectionAuthRegistry} bean when {@code easy-jwt.connection-auth.enabled} is {@code true}.
+     * <p>
+     * Callbacks run on the wheel thread, so they should only close or flag connections.
+     *
+     * @param jwtProperties the properties for JWT configuration
+     * @return the {@link ConnectionAuthRegistry} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "easy-jwt.connection-auth.enabled", havingValue = "true")
+    public ConnectionAuthRegistry connectionAuthRegistry(JwtProperties jwtProperties) {
+        return new ConnectionAuthRegistry(Duration.ofMillis(jwtProperties.getConnectionAuth().getTick()), null);
+    }
+
+    /**
+     * Provides a {@link SessionRegistry} bean when {@code easy-jwt.sessions.enabled} is {@code true}.
+     * <p>
+     * Provide a {@link SessionStore} bean to persist the sessions.
+     *
+     * @param jwtProperties the properties for JWT configuration
+     * @param sessionStore  the store persisting sessions, if any
+     * @return the {@link SessionRegistry} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "easy-jwt.sessions.enabled", havingValue = "true")
+    public SessionRegistry sessionRegistry(JwtProperties jwtProperties, ObjectProvider<SessionStore> sessionStore) {
+        return new SessionRegistry(jwtProperties.getSessions().getMaxPerUser(), sessionStore.getIfAvailable());
+    }
+
+    /**
+     * Provides a {@link SpeculativeUserLookup} bean when {@code easy-jwt.speculative-lookup.enabled} is {@code true}.
+     * <p>
+     * Users are then loaded while their token signature is being verified.
+     *
+     * @param userDetailsService the service used to load user details
+     * @param jwtProperties      the properties for JWT configuration
+     * @return the {@link SpeculativeUserLookup} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "easy-jwt.speculative-lookup.enabled", havingValue = "true")
+    public SpeculativeUserLookup speculativeUserLookup(UserDetailsService userDetailsService, JwtProperties jwtProperties) {
+        return new SpeculativeUserLookup(userDetailsService, jwtProperties.getSpeculativeLookup().getMaxConcurrent());
+    }
+
+    /**
+     * Provides a {@link ServiceTokenCache} bean when {@code easy-jwt.service-token.enabled} is {@code true}.
+     * <p>
+     * Tokens for outgoing calls are then minted once and renewed in the background, see {@link ServiceTokenInterceptor}.
+     *
+     * @param jwtTokenProvider the provider minting the tokens
+     * @param jwtProperties    the properties for JWT configuration
+     * @return the {@link ServiceTokenCache} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "easy-jwt.service-token.enabled", havingValue = "true")
+    public ServiceTokenCache serviceTokenCache(JwtTokenProvider jwtTokenProvider, JwtProperties jwtProperties) {
+        JwtProperties.ServiceToken serviceToken = jwtProperties.getServiceToken();
+        return new ServiceTokenCache(jwtTokenProvider, Duration.ofSeconds(jwtProperties.getAccessTokenExpiration()),
+                Duration.ofSeconds(serviceToken.getRenewBefore()), serviceToken.getMaxSize());
+    }
+
+    /**
+     * Provides the default {@link AuditSink} when {@code easy-jwt.audit.enabled} is {@code true}.
+     * <p>
+     * Events are appended as JSON lines to {@code easy-jwt.audit.file}, rolled over by size.
+     *
+     * @param jwtProperties the properties for JWT configuration
+     * @return the {@link AuditSink} bean
+     * @throws IOException if the audit file can't be opened
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "easy-jwt.audit.enabled", havingValue = "true")
+    public AuditSink auditSink(JwtProperties jwtProperties) throws IOException {
+        JwtProperties.Audit audit = jwtProperties.getAudit();
+        return new RollingFileAuditSink(Paths.get(audit.getFile()), audit.getMaxFileSize(), audit.getMaxHistory());
+    }
+
+    /**
+     * Provides an {@link AsyncAuditLog} bean when {@code easy-jwt.audit.enabled} is {@code true}.
+     * <p>
+     * Token operations are buffered and written to the {@link AuditSink} by a background thread,
+     * keeping audit I/O off request threads.
+     *
+     * @param auditSink     the sink receiving the audit events
+     * @param jwtProperties the properties for JWT configuration
+     * @return the {@link AsyncAuditLog} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "easy-jwt.audit.enabled", havingValue = "true")
+    public AsyncAuditLog asyncAuditLog(AuditSink auditSink, JwtProperties jwtProperties) {
+        JwtProperties.Audit audit = jwtProperties.getAudit();
+        return new AsyncAuditLog(auditSink, audit.getBufferSize(), audit.getBatchSize(), audit.getOverflowPolicy());
+    }
+
+    /**
+     * Provides a {@link JtiStore} bean tracking redeemed single-use purpose tokens.
+     * <p>
+     * If {@code easy-jwt.jti-store.path} is set, redeemed ids are kept in a memory-mapped log and survive
+     * restarts; otherwise they are only kept in memory.
+     *
+     * @param jwtProperties the properties for JWT configuration
+     * @return the {@link JtiStore} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public JtiStore jtiStore(JwtProperties jwtProperties) {
+        JwtProperties.JtiStore settings = jwtProperties.getJtiStore();
+        if (settings.getPath() == null) {
+            return new InMemoryJtiStore();
+        }
+        return new MappedJtiStore(Paths.get(settings.getPath()), settings.getInitialSize(), settings.isSync());
+    }
+
+    /**
+     * Provides the {@link JwtVerifier} of the default key as a bean.
+     * <p>
+     * The verifier doesn't depend on the Servlet API and can be used by non-HTTP transports,
+     * e.g. with {@link com.seok.easyjwt.grpc.JwtServerInterceptor}.
+     *
+     * @param jwtTokenProvider the provider owning the verifier
+     * @return the {@link JwtVerifier} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtVerifier jwtVerifier(JwtTokenProvider jwtTokenProvider) {
+        return jwtTokenProvider.getJwtVerifier();
+    }
+
+    /**
+     * Provides the {@link JwtIssuer} of the default key as a bean.
+     *
+     * @param jwtTokenProvider the provider owning the issuer
+     * @return the {@link JwtIssuer} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtIssuer jwtIssuer(JwtTokenProvider jwtTokenProvider) {
+        return jwtTokenProvider.getJwtIssuer();
+    }
+
+    /**
+     * Provides a {@link JwtTenantRegistry} bean.
+     * <p>
+     * The registry starts with the tenants configured under {@code easy-jwt.tenants.*};
+     * more tenants can be registered at runtime.
+     *
+     * @param jwtProperties the properties for JWT configuration
+     * @return the {@link JwtTenantRegistry} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtTenantRegistry jwtTenantRegistry(JwtProperties jwtProperties) {
+        return new JwtTenantRegistry(jwtProperties);
+    }
+
+    /**
+     * Provides a {@link TokenIntrospector} bean when {@code easy-jwt.introspection.enabled} is {@code true}.
+     * <p>
+     * The introspector verifies batches of tokens in parallel, e.g. for API gateways.
+     *
+     * @param jwtTokenProvider   the provider verifying tokens
+     * @param userDetailsService the service used to load users
+     * @param jwtProperties      the properties for JWT configuration
+     * @return the {@link TokenIntrospector} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "easy-jwt.introspection.enabled", havingValue = "true")
+    public TokenIntrospector tokenIntrospector(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService,
+                                               JwtProperties jwtProperties) {
+        JwtProperties.Introspection introspection = jwtProperties.getIntrospection();
+        return new TokenIntrospector(jwtTokenProvider, userDetailsService, introspection.getParallelism(), introspection.getMaxBatchSize());
+    }
+
+    /**
+     * Provides the introspection endpoint when both {@code easy-jwt.introspection.enabled} and
+     * {@code easy-jwt.introspection.endpoint-enabled} are {@code true}.
+     *
+     * @param tokenIntrospector the introspector handling the batches
+     * @param jwtProperties     the properties for JWT configuration
+     * @return the {@link TokenIntrospectionFilter} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "easy-jwt.introspection", name = {"enabled", "endpoint-enabled"}, havingValue = "true")
+    public TokenIntrospectionFilter tokenIntrospectionFilter(TokenIntrospector tokenIntrospector, JwtProperties jwtProperties) {
+        return new TokenIntrospectionFilter(tokenIntrospector, jwtProperties.getIntrospection().getEndpointPath());
     }
 
     /**
@@ -108,4 +413,35 @@ public class EasyJwtAutoConfiguration {
     public CurrentUserService<?> currentUserService() {
         return new CurrentUserService<>();
     }
+
+    /**
+     * Provides a {@link CurrentClaimsArgumentResolver} bean in Spring MVC applications.
+     * <p>
+     * Register it through {@code WebMvcConfigurer#addArgumentResolvers(List)} to bind {@code @CurrentClaims} parameters.
+     *
+     * @param currentUserService the service providing the claims outside of the request attribute
+     * @return the {@link CurrentClaimsArgumentResolver} bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnClass(name = "org.springframework.web.servlet.DispatcherServlet")
+    public CurrentClaimsArgumentResolver currentClaimsArgumentResolver(CurrentUserService<?> currentUserService) {
+        return new CurrentClaimsArgumentResolver(currentUserService);
+    }
+
+    /**
+     * Wraps the query service in a {@link BatchingQueryJwtUserService} when {@code easy-jwt.user-batching.enabled} is {@code true}.
+     * The wrapper is created once and shared by every bean asking for it.
+     */
+    private synchronized QueryJwtUserService batching(QueryJwtUserService queryJwtUserService, JwtProperties jwtProperties) {
+        JwtProperties.UserBatching settings = jwtProperties.getUserBatching();
+        if (!settings.isEnabled()) {
+            return queryJwtUserService;
+        }
+        if (batchingQueryJwtUserService == null) {
+            batchingQueryJwtUserService = new BatchingQueryJwtUserService(queryJwtUserService, settings.getWindowMillis(),
+                    settings.getMaxKeys());
+        }
+        return batchingQueryJwtUserService;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,381 @@
+package com.seok.easyjwt.connection;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tracks the authentication of long-lived connections, such as WebSocket sessions or server-sent event streams,
+ * and calls back when it runs out.
+ * <p>
+ * {@link com.seok.easyjwt.jwt.JwtFilter} only authenticates the handshake, after which a stream can stay open long
+ * past the expiry of its token. Registering the stream with the expiry of its token makes the registry invoke a
+ * callback at that expiry, which can close the stream or ask the client for a fresh token and
+ * {@linkplain Connection#extend(long) extend} it. {@link #expireAll(String)} ends all streams of a user right away,
+ * e.g. when the user is disabled.
+ * <p>
+ * Expiries are kept in a hierarchical {@link TimingWheel} driven by a single thread, so registering, extending and
+ * cancelling are constant time and no connection polls: the thread only wakes up once per tick. Callbacks fire on
+ * the first tick at or after the expiry, never before it. Registrations are handed to the thread through a
+ * lock-free queue, and callbacks run on the given executor, or on the wheel thread if none is given, in which case
+ * they must not block. Without an executor, the callbacks of {@link #expireAll(String)} run on the calling thread.
+ * <p>
+ * Usage:
+ * <pre>
+ *     Connection connection = registry.register(claims, expired -> emitter.complete());
+ *     emitter.onCompletion(connection::cancel);
+ * </pre>
+ */
+public class ConnectionAuthRegistry implements AutoCloseable {
+
+    private static final int ACTIVE = 0;
+    private static final int EXPIRED = 1;
+    private static final int CANCELLED = 2;
+    private static final long MAX_REMAINING_MILLIS = Duration.ofDays(365L * 100).toMillis();
+
+    private final long tickNanos;
+    private final Executor callbackExecutor;
+    private final long startNanos = System.nanoTime();
+    private final TimingWheel wheel = new TimingWheel(this::onDue);
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<String, Set<Connection>> connectionsBySubject = new ConcurrentHashMap<>();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final Thread driver;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new {@code ConnectionAuthRegistry} with a tick of 100 milliseconds, running callbacks on the
+     * wheel thread.
+     */
+    public ConnectionAuthRegistry() {
+        this(Duration.ofMillis(100), null);
+    }
+
+    /**
+     * Constructs a new {@code ConnectionAuthRegistry} and starts its wheel thread.
+     *
+     * @param tick             the resolution of expiries; callbacks fire at most one tick late
+     * @param callbackExecutor the executor running callbacks, or {@code null} to run them on the wheel thread
+     * @throws IllegalArgumentException if the tick isn't positive
+     */
+    public ConnectionAuthRegistry(Duration tick, Executor callbackExecutor) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Connection expiry tick must be positive");
+        }
+        this.tickNanos = tick.toNanos();
+        this.callbackExecutor = callbackExecutor;
+        this.driver = new Thread(this::driveLoop, "easy-jwt-connection-expiry");
+        this.driver.setDaemon(true);
+        this.driver.start();
+    }
+
+    /**
+     * Registers a connection authenticated by a token.
+     *
+     * @param claims   the verified claims of the token, providing the subject and the expiry
+     * @param callback called when the token expires
+     * @return the registered connection
+     * @throws IllegalArgumentException if the token has no expiry
+     */
+    public Connection register(Claims claims, ExpiryCallback callback) {
+        if (claims.getExpiration() == null) {
+            throw new IllegalArgumentException("Token has no expiration");
+        }
+        return register(claims.getSubject(), claims.getExpiration().getTime(), callback);
+    }
+
+    /**
+     * Registers a connection.
+     *
+     * @param subject   the authenticated subject
+     * @param expiresAt the time the authentication expires, in milliseconds since the epoch
+     * @param callback  called when the authentication expires
+     * @return the registered connection
+     * @throws IllegalStateException if the registry is closed
+     */
+    public Connection register(String subject, long expiresAt, ExpiryCallback callback) {
+        if (closed) {
+            throw new IllegalStateException("Connection registry is closed");
+        }
+        Connection connection = new Connection(subject, callback);
+        synchronized (connection) {
+            connection.setExpiry(expiresAt);
+            index(connection);
+            activeCount.incrementAndGet();
+            schedule(connection);
+        }
+        return connection;
+    }
+
+    /**
+     * Expires all connections of a subject now, e.g. after the user was disabled or logged out everywhere.
+     * <p>
+     * The callbacks run on the callback executor, or on the calling thread before this method returns if the
+     * registry has no executor.
+     *
+     * @param subject the subject
+     * @return the number of expired connections
+     */
+    public int expireAll(String subject) {
+        Set<Connection> connections = connectionsBySubject.remove(subject);
+        if (connections == null) {
+            return 0;
+        }
+        int expired = 0;
+        for (Connection connection : connections) {
+            boolean fire;
+            synchronized (connection) {
+                fire = connection.state == ACTIVE;
+                if (fire) {
+                    connection.state = EXPIRED;
+                    activeCount.decrementAndGet();
+                }
+            }
+            if (fire) {
+                expired++;
+                dispatch(connection);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Returns the number of active connections.
+     *
+     * @return the number of active connections
+     */
+    public int size() {
+        return activeCount.get();
+    }
+
+    /**
+     * Stops the wheel thread and waits for it to finish. Pending expiries no longer fire.
+     * <p>
+     * If the calling thread is interrupted while waiting, it still waits and its interrupt status is restored.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(driver);
+        boolean interrupted = false;
+        while (driver.isAlive()) {
+            try {
+                driver.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void driveLoop() {
+        while (!closed) {
+            Timeout timeout;
+            while ((timeout = scheduled.poll()) != null) {
+                wheel.schedule(timeout, dueTick(timeout));
+            }
+
+            // Catches up on ticks missed while the thread was descheduled
+            long elapsedTicks = (System.nanoTime() - startNanos) / tickNanos;
+            while (wheel.currentTick() < elapsedTicks) {
+                wheel.advance(this::dueTick);
+            }
+
+            long nextTickNanos = startNanos + (wheel.currentTick() + 1) * tickNanos;
+            LockSupport.parkNanos(this, nextTickNanos - System.nanoTime());
+        }
+    }
+
+    private long dueTick(TimingWheel.Node node) {
+        long sinceStart = ((Timeout) node).connection.deadlineNanos - startNanos;
+        // Rounded up, so callbacks never fire before the expiry
+        return sinceStart <= 0 ? 0 : (sinceStart + tickNanos - 1) / tickNanos;
+    }
+
+    /**
+     * Called by the wheel when a timeout reaches its tick.
+     */
+    private void onDue(TimingWheel.Node node) {
+        Timeout timeout = (Timeout) node;
+        Connection connection = timeout.connection;
+        synchronized (connection) {
+            if (timeout.generation != connection.generation || connection.state != ACTIVE) {
+                return;
+            }
+            // Extended to a later expiry since it was scheduled
+            long dueTick = dueTick(timeout);
+            if (dueTick > wheel.currentTick()) {
+                wheel.schedule(timeout, dueTick);
+                return;
+            }
+            connection.state = EXPIRED;
+            activeCount.decrementAndGet();
+            unindex(connection);
+        }
+        dispatch(connection);
+    }
+
+    private void dispatch(Connection connection) {
+        Runnable callback = () -> {
+            try {
+                connection.callback.expired(connection);
+            } catch (RuntimeException e) {
+                // A failing callback must not stop the wheel or other callbacks
+            }
+        };
+        if (callbackExecutor != null) {
+            callbackExecutor.execute(callback);
+        } else {
+            callback.run();
+        }
+    }
+
+    /**
+     * Schedules the current expiry of a connection. Must hold the connection lock.
+     */
+    private void schedule(Connection connection) {
+        connection.generation++;
+        scheduled.add(new Timeout(connection, connection.generation));
+    }
+
+    private void index(Connection connection) {
+        connectionsBySubject.compute(connection.subject, (subject, connections) -> {
+            Set<Connection> set = connections != null ? connections : new HashSet<>();
+            set.add(connection);
+            return set;
+        });
+    }
+
+    private void unindex(Connection connection) {
+        connectionsBySubject.computeIfPresent(connection.subject, (subject, connections) -> {
+            connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+
+    /**
+     * Called when the authentication of a connection expires.
+     */
+    @FunctionalInterface
+    public interface ExpiryCallback {
+
+        /**
+         * Handles the expiry, typically by closing the connection, or by revalidating it and calling
+         * {@link Connection#extend(long)}.
+         *
+         * @param connection the expired connection
+         */
+        void expired(Connection connection);
+    }
+
+    /**
+     * A connection registered in a {@link ConnectionAuthRegistry}.
+     */
+    public final class Connection {
+
+        private final String subject;
+        private final ExpiryCallback callback;
+        private volatile long expiresAt;
+        private volatile long deadlineNanos;
+        private volatile int state = ACTIVE;
+        // Bumped on every reschedule, so timeouts of earlier schedules are ignored
+        private int generation;
+
+        private Connection(String subject, ExpiryCallback callback) {
+            this.subject = subject;
+            this.callback = callback;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        /**
+         * Returns the time the authentication expires.
+         *
+         * @return the expiry, in milliseconds since the epoch
+         */
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        /**
+         * Indicates whether the connection is still authenticated, i.e. neither expired nor cancelled.
+         *
+         * @return {@code true} if the connection is active
+         */
+        public boolean isActive() {
+            return state == ACTIVE;
+        }
+
+        /**
+         * Moves the expiry, e.g. after the client sent a fresh token. An expired connection becomes active again.
+         *
+         * @param newExpiresAt the new expiry, in milliseconds since the epoch
+         * @return {@code true} if the connection is active, {@code false} if it was cancelled or the registry is closed
+         */
+        public boolean extend(long newExpiresAt) {
+            synchronized (this) {
+                if (state == CANCELLED || closed) {
+                    return false;
+                }
+                long previousDeadline = deadlineNanos;
+                setExpiry(newExpiresAt);
+                if (state == EXPIRED) {
+                    state = ACTIVE;
+                    activeCount.incrementAndGet();
+                    index(this);
+                    schedule(this);
+                } else if (deadlineNanos < previousDeadline) {
+                    schedule(this);
+                }
+                // A later expiry needs no reschedule, the pending timeout moves on when it comes due
+                return true;
+            }
+        }
+
+        /**
+         * Stops tracking the connection, e.g. once it is closed. The callback no longer fires.
+         */
+        public void cancel() {
+            synchronized (this) {
+                if (state == ACTIVE) {
+                    activeCount.decrementAndGet();
+                    unindex(this);
+                }
+                state = CANCELLED;
+            }
+        }
+
+        private void setExpiry(long newExpiresAt) {
+            expiresAt = newExpiresAt;
+            // Capped so far-off expiries can't overflow the nano time
+            long remainingMillis = Math.min(newExpiresAt - System.currentTimeMillis(), MAX_REMAINING_MILLIS);
+            deadlineNanos = System.nanoTime() + remainingMillis * 1_000_000L;
+        }
+    }
+
+    private static final class Timeout extends TimingWheel.Node {
+
+        private final Connection connection;
+        private final int generation;
+
+        Timeout(Connection connection, int generation) {
+            this.connection = connection;
+            this.generation = generation;
+        }
+    }
+}
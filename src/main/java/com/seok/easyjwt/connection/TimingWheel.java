@@ -0,0 +1,102 @@
+package com.seok.easyjwt.connection;
+
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * A hierarchical timing wheel of four levels of 64 slots each.
+ * <p>
+ * Level {@code l} has slots of {@code 64^l} ticks, so the wheel spans {@code 64^4} ticks. A timeout is placed in the
+ * lowest level whose span covers it, in constant time. When the lower levels complete a turn, the next slot of the
+ * level above is cascaded, i.e. its timeouts are placed again, now in a lower level. Timeouts due after the span of
+ * the wheel wait in the top level and are cascaded until they fit.
+ * <p>
+ * Not thread-safe: only the thread driving the wheel may call it.
+ */
+final class TimingWheel {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final Node[][] slots = new Node[LEVELS][SLOTS];
+    private final Consumer<Node> expiry;
+    private long currentTick;
+
+    /**
+     * Creates a wheel handing due timeouts to {@code expiry}.
+     */
+    TimingWheel(Consumer<Node> expiry) {
+        this.expiry = expiry;
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Places a timeout due at the given tick, or hands it over right away if that tick has been reached.
+     */
+    void schedule(Node node, long dueTick) {
+        long delta = dueTick - currentTick;
+        if (delta <= 0) {
+            expiry.accept(node);
+            return;
+        }
+        if (delta >= SPAN) {
+            // Parked in the top level until it fits in the span of the wheel
+            dueTick = currentTick + SPAN - 1;
+            delta = SPAN - 1;
+        }
+
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) (dueTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+        node.next = slots[level][slot];
+        slots[level][slot] = node;
+    }
+
+    /**
+     * Advances the wheel by one tick, cascading upper levels as their turn comes and expiring the current slot.
+     *
+     * @param dueTick returns the tick a cascaded timeout is due at
+     */
+    void advance(ToLongFunction<Node> dueTick) {
+        currentTick++;
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                int slot = (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+                Node node = slots[level][slot];
+                slots[level][slot] = null;
+                while (node != null) {
+                    Node next = node.next;
+                    node.next = null;
+                    schedule(node, dueTick.applyAsLong(node));
+                    node = next;
+                }
+            }
+        }
+
+        int slot = (int) currentTick & SLOT_MASK;
+        Node node = slots[0][slot];
+        slots[0][slot] = null;
+        while (node != null) {
+            Node next = node.next;
+            node.next = null;
+            expiry.accept(node);
+            node = next;
+        }
+    }
+
+    /**
+     * An entry of a slot list.
+     */
+    static class Node {
+
+        Node next;
+    }
+}
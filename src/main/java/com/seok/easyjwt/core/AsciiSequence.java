@@ -0,0 +1,55 @@
+package com.seok.easyjwt.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A read-only {@link CharSequence} view over ASCII bytes.
+ * <p>
+ * Compact JWTs only consist of base64url characters and dots, so each byte maps to exactly one char.
+ * This lets the parser read a token straight from a network buffer without first copying it into a {@link String}.
+ * The underlying buffer must not be modified while the view is in use.
+ */
+final class AsciiSequence implements CharSequence {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    /**
+     * Creates a view over {@code length} bytes of the buffer starting at the absolute index {@code offset}.
+     */
+    AsciiSequence(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        }
+        return new AsciiSequence(buffer, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,76 @@
+package com.seok.easyjwt.core;
+
+import com.seok.easyjwt.jwt.TokenType;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Issues signed JWT tokens, independently of any web framework.
+ * <p>
+ * This is the issuing counterpart of {@link JwtVerifier}. A {@code JwtIssuer} is immutable and thread-safe.
+ */
+public class JwtIssuer {
+
+    private final SecretKey secretKey;
+    private final String issuer;
+
+    /**
+     * Constructs a new {@code JwtIssuer} signing tokens with the given key.
+     *
+     * @param secretKey the key used to sign tokens
+     */
+    public JwtIssuer(SecretKey secretKey) {
+        this(secretKey, null);
+    }
+
+    /**
+     * Constructs a new {@code JwtIssuer} signing tokens with the given key and writing the given issuer.
+     *
+     * @param secretKey the key used to sign tokens
+     * @param issuer    the {@code iss} claim written to every token, or {@code null} for none
+     */
+    public JwtIssuer(SecretKey secretKey, String issuer) {
+        this.secretKey = secretKey;
+        this.issuer = issuer;
+    }
+
+    /**
+     * Issues a token with the specified parameters.
+     *
+     * @param subject           the subject (typically the username) for the token
+     * @param expirationSeconds the expiration time (in seconds) for the token
+     * @param type              the type of token (e.g., ACCESS, REFRESH)
+     * @param claims            additional claims to include in the token
+     * @return the compact signed token
+     */
+    public String issue(String subject, long expirationSeconds, TokenType type, Map<String, Object> claims) {
+        long nowMillis = System.currentTimeMillis();
+        Date now = new Date(nowMillis);
+        Date exp = new Date(nowMillis + expirationSeconds * 1000L);
+
+        JwtBuilder builder = Jwts.builder().subject(subject).issuedAt(now).expiration(exp).claim(TokenType.CLAIM_NAME, type.name())
+                .signWith(secretKey);
+
+        if (claims != null && !claims.isEmpty()) {
+            builder.claims(claims);
+        }
+        if (issuer != null) {
+            builder.issuer(issuer);
+        }
+
+        return builder.compact();
+    }
+
+    /**
+     * Returns the issuer written to every token.
+     *
+     * @return the issuer, or {@code null} if none is written
+     */
+    public String getIssuer() {
+        return issuer;
+    }
+}
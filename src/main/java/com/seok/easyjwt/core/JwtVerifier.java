@@ -0,0 +1,125 @@
+package com.seok.easyjwt.core;
+
+import com.seok.easyjwt.exception.ExpiredTokenException;
+import com.seok.easyjwt.exception.InvalidTokenException;
+import com.seok.easyjwt.jwt.TokenType;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+
+/**
+ * Verifies JWT tokens and returns their claims, independently of any web framework.
+ * <p>
+ * The verifier has no dependency on the Servlet API or Spring Security, so it can be used from
+ * Netty handlers, gRPC interceptors or plain Java code. Besides strings, tokens can be verified straight
+ * from a {@code byte[]} slice or a {@link ByteBuffer} without first being turned into a {@link String}.
+ * <p>
+ * The underlying parser is built once; a {@code JwtVerifier} is immutable and thread-safe.
+ */
+public class JwtVerifier {
+
+    private final JwtParser parser;
+
+    /**
+     * Constructs a new {@code JwtVerifier} checking signatures with the given key.
+     *
+     * @param secretKey the key used to verify token signatures
+     */
+    public JwtVerifier(SecretKey secretKey) {
+        this(Jwts.parser().verifyWith(secretKey).build());
+    }
+
+    /**
+     * Constructs a new {@code JwtVerifier} checking signatures with the given key and requiring an issuer.
+     *
+     * @param secretKey the key used to verify token signatures
+     * @param issuer    the required {@code iss} claim
+     */
+    public JwtVerifier(SecretKey secretKey, String issuer) {
+        this(Jwts.parser().requireIssuer(issuer).verifyWith(secretKey).build());
+    }
+
+    /**
+     * Constructs a new {@code JwtVerifier} using a preconfigured parser.
+     *
+     * @param parser the parser verifying tokens
+     */
+    public JwtVerifier(JwtParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Verifies a token and returns its claims.
+     *
+     * @param token the compact token
+     * @return the verified claims
+     * @throws ExpiredTokenException if the token has expired
+     * @throws InvalidTokenException if the token is invalid
+     */
+    public Claims verify(CharSequence token) {
+        try {
+            return parser.parseSignedClaims(token).getPayload();
+        } catch (ExpiredJwtException e) {
+            throw new ExpiredTokenException("Token has expired", e);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid JWT token", e);
+        }
+    }
+
+    /**
+     * Verifies a token of the given type and returns its claims.
+     *
+     * @param token        the compact token
+     * @param expectedType the required token type
+     * @return the verified claims
+     * @throws ExpiredTokenException if the token has expired
+     * @throws InvalidTokenException if the token is invalid or of another type
+     */
+    public Claims verify(CharSequence token, TokenType expectedType) {
+        Claims claims = verify(token);
+        if (!expectedType.name().equals(claims.get(TokenType.CLAIM_NAME))) {
+            throw new InvalidTokenException("Invalid token type");
+        }
+        return claims;
+    }
+
+    /**
+     * Verifies a token held as ASCII bytes in an array slice.
+     *
+     * @param token  the array holding the compact token
+     * @param offset the index of the first byte of the token
+     * @param length the number of bytes of the token
+     * @return the verified claims
+     * @throws ExpiredTokenException if the token has expired
+     * @throws InvalidTokenException if the token is invalid
+     */
+    public Claims verify(byte[] token, int offset, int length) {
+        return verify(ByteBuffer.wrap(token), offset, length);
+    }
+
+    /**
+     * Verifies a token held as ASCII bytes between the position and the limit of a buffer.
+     * <p>
+     * The buffer is read in place, its position and limit are left untouched.
+     *
+     * @param token the buffer holding the compact token
+     * @return the verified claims
+     * @throws ExpiredTokenException if the token has expired
+     * @throws InvalidTokenException if the token is invalid
+     */
+    public Claims verify(ByteBuffer token) {
+        return verify(token, token.position(), token.remaining());
+    }
+
+    private Claims verify(ByteBuffer buffer, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.limit()) {
+            throw new InvalidTokenException("Invalid JWT token");
+        }
+        return verify(new AsciiSequence(buffer, offset, length));
+    }
+}
@@ -0,0 +1,99 @@
+package com.seok.easyjwt.grpc;
+
+import com.seok.easyjwt.core.JwtVerifier;
+import com.seok.easyjwt.exception.EasyJwtException;
+import com.seok.easyjwt.jwt.TokenType;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.jsonwebtoken.Claims;
+
+import java.nio.CharBuffer;
+
+/**
+ * A gRPC {@link ServerInterceptor} authenticating calls with JWT access tokens.
+ * <p>
+ * The token is read from the {@code authorization} metadata entry and verified with a {@link JwtVerifier},
+ * without going through the Servlet API or Spring Security. On success, the verified claims are available
+ * to the service through {@link #CLAIMS_CONTEXT_KEY}; otherwise the call is closed with
+ * {@link Status#UNAUTHENTICATED}.
+ * <p>
+ * Usage:
+ * - Register the interceptor with the gRPC server, e.g. {@code ServerInterceptors.intercept(service, interceptor)}.
+ * - Read the claims in the service with {@code JwtServerInterceptor.CLAIMS_CONTEXT_KEY.get()}.
+ */
+public class JwtServerInterceptor implements ServerInterceptor {
+
+    /**
+     * The metadata entry the token is read from.
+     */
+    public static final Metadata.Key<String> AUTHORIZATION_KEY = Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+
+    /**
+     * The context key holding the verified claims of the current call.
+     */
+    public static final Context.Key<Claims> CLAIMS_CONTEXT_KEY = Context.key("easy-jwt-claims");
+
+    private final JwtVerifier jwtVerifier;
+    private final String tokenPrefix;
+    private final boolean required;
+
+    /**
+     * Constructs a new {@code JwtServerInterceptor} rejecting calls without a token.
+     *
+     * @param jwtVerifier the verifier checking tokens
+     * @param tokenPrefix the prefix preceding the token in the metadata entry (e.g. "Bearer ")
+     */
+    public JwtServerInterceptor(JwtVerifier jwtVerifier, String tokenPrefix) {
+        this(jwtVerifier, tokenPrefix, true);
+    }
+
+    /**
+     * Constructs a new {@code JwtServerInterceptor}.
+     *
+     * @param jwtVerifier the verifier checking tokens
+     * @param tokenPrefix the prefix preceding the token in the metadata entry (e.g. "Bearer ")
+     * @param required    whether calls without a token are rejected; if {@code false}, they pass unauthenticated
+     */
+    public JwtServerInterceptor(JwtVerifier jwtVerifier, String tokenPrefix, boolean required) {
+        this.jwtVerifier = jwtVerifier;
+        this.tokenPrefix = tokenPrefix;
+        this.required = required;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call,
+            Metadata headers,
+            ServerCallHandler<ReqT, RespT> next
+    ) {
+        String authorization = headers.get(AUTHORIZATION_KEY);
+        if (authorization == null || !authorization.startsWith(tokenPrefix)) {
+            if (required) {
+                return reject(call, "Missing JWT token");
+            }
+            return next.startCall(call, headers);
+        }
+
+        Claims claims;
+        try {
+            // Verify a view of the token instead of copying it out of the header value
+            claims = jwtVerifier.verify(CharBuffer.wrap(authorization, tokenPrefix.length(), authorization.length()), TokenType.ACCESS);
+        } catch (EasyJwtException e) {
+            return reject(call, e.getMessage());
+        }
+
+        Context context = Context.current().withValue(CLAIMS_CONTEXT_KEY, claims);
+        return Contexts.interceptCall(context, call, headers, next);
+    }
+
+    private <ReqT, RespT> ServerCall.Listener<ReqT> reject(ServerCall<ReqT, RespT> call, String description) {
+        call.close(Status.UNAUTHENTICATED.withDescription(description), new Metadata());
+        return new ServerCall.Listener<>() {
+        };
+    }
+}
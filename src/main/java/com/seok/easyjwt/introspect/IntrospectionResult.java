@@ -0,0 +1,97 @@
+package com.seok.easyjwt.introspect;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * The outcome of introspecting a single token.
+ * <p>
+ * Results never carry exceptions: a failed verification or user lookup is reported through
+ * {@link #getStatus()} and {@link #getError()}.
+ */
+public final class IntrospectionResult {
+
+    /**
+     * The status of an introspected token.
+     */
+    public enum Status {
+        /**
+         * The token is valid and, if users were loaded, its user exists.
+         */
+        VALID,
+
+        /**
+         * The token has expired.
+         */
+        EXPIRED,
+
+        /**
+         * The token is malformed, has an invalid signature or its user doesn't exist.
+         */
+        INVALID
+    }
+
+    private final Status status;
+    private final Claims claims;
+    private final UserDetails userDetails;
+    private final String error;
+
+    private IntrospectionResult(Status status, Claims claims, UserDetails userDetails, String error) {
+        this.status = status;
+        this.claims = claims;
+        this.userDetails = userDetails;
+        this.error = error;
+    }
+
+    static IntrospectionResult valid(Claims claims) {
+        return new IntrospectionResult(Status.VALID, claims, null, null);
+    }
+
+    static IntrospectionResult failed(Status status, String error) {
+        return new IntrospectionResult(status, null, null, error);
+    }
+
+    IntrospectionResult withUser(UserDetails userDetails) {
+        return new IntrospectionResult(status, claims, userDetails, error);
+    }
+
+    /**
+     * Returns whether the token is valid.
+     *
+     * @return {@code true} if the status is {@link Status#VALID}
+     */
+    public boolean isActive() {
+        return status == Status.VALID;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the verified claims.
+     *
+     * @return the claims, or {@code null} if the token is not valid
+     */
+    public Claims getClaims() {
+        return claims;
+    }
+
+    /**
+     * Returns the user of the token.
+     *
+     * @return the user details, or {@code null} if the token is not valid or users were not loaded
+     */
+    public UserDetails getUserDetails() {
+        return userDetails;
+    }
+
+    /**
+     * Returns why the token is not valid.
+     *
+     * @return the error message, or {@code null} if the token is valid
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,148 @@
+package com.seok.easyjwt.introspect;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes the {@link TokenIntrospector} as an HTTP endpoint.
+ * <p>
+ * The endpoint answers {@code POST} requests to the configured path with a body of the form
+ * {@code {"tokens": ["...", "..."]}} and responds with one result per token:
+ * {@code {"results": [{"active": true, "status": "VALID", "sub": "...", "claims": {...}, "authorities": [...]}]}}.
+ * Bodies with more tokens than {@link TokenIntrospector#getMaxBatchSize()} are rejected while being read,
+ * without buffering the rest of the array. All other requests pass through untouched.
+ * <p>
+ * The response reveals token claims, so access to the endpoint must be restricted in the security configuration.
+ */
+public class TokenIntrospectionFilter extends OncePerRequestFilter {
+
+    private final TokenIntrospector tokenIntrospector;
+    private final String endpointPath;
+    private final Gson gson = new Gson();
+
+    /**
+     * Constructs a new {@code TokenIntrospectionFilter}.
+     *
+     * @param tokenIntrospector the introspector handling the batches
+     * @param endpointPath      the path of the endpoint, relative to the context path
+     */
+    public TokenIntrospectionFilter(TokenIntrospector tokenIntrospector, String endpointPath) {
+        this.tokenIntrospector = tokenIntrospector;
+        this.endpointPath = endpointPath;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !"POST".equals(request.getMethod()) || !endpointPath.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        List<IntrospectionResult> results;
+        try {
+            results = tokenIntrospector.introspect(readTokens(request, tokenIntrospector.getMaxBatchSize()));
+        } catch (IllegalArgumentException | IllegalStateException | IOException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonWriter writer = new JsonWriter(response.getWriter())) {
+            writeResults(writer, results);
+        }
+    }
+
+    /**
+     * Reads the tokens of the request body, failing as soon as there are more than {@code maxTokens}.
+     */
+    private List<String> readTokens(HttpServletRequest request, int maxTokens) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(request.getReader())) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"tokens".equals(reader.nextName())) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (tokens.size() >= maxTokens) {
+                        throw new IllegalArgumentException("Batch exceeds the maximum of " + maxTokens + " tokens");
+                    }
+                    if (reader.peek() == JsonToken.NULL) {
+                        reader.nextNull();
+                        tokens.add(null);
+                    } else {
+                        tokens.add(reader.nextString());
+                    }
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+        }
+        return tokens;
+    }
+
+    private void writeResults(JsonWriter writer, List<IntrospectionResult> results) throws IOException {
+        writer.beginObject().name("results").beginArray();
+        for (IntrospectionResult result : results) {
+            writer.beginObject();
+            writer.name("active").value(result.isActive());
+            writer.name("status").value(result.getStatus().name());
+            if (result.isActive()) {
+                writer.name("sub").value(result.getClaims().getSubject());
+                writer.name("claims").beginObject();
+                for (Map.Entry<String, Object> claim : result.getClaims().entrySet()) {
+                    writer.name(claim.getKey());
+                    writeValue(writer, claim.getValue());
+                }
+                writer.endObject();
+                if (result.getUserDetails() != null) {
+                    writer.name("authorities").beginArray();
+                    for (GrantedAuthority authority : result.getUserDetails().getAuthorities()) {
+                        writer.value(authority.getAuthority());
+                    }
+                    writer.endArray();
+                }
+            } else {
+                writer.name("error").value(result.getError());
+            }
+            writer.endObject();
+        }
+        writer.endArray().endObject();
+    }
+
+    private void writeValue(JsonWriter writer, Object value) throws IOException {
+        if (value instanceof Date) {
+            // Registered date claims are written back as NumericDate (seconds since the epoch)
+            writer.value(((Date) value).getTime() / 1000L);
+        } else if (value == null) {
+            writer.nullValue();
+        } else {
+            gson.toJson(value, value.getClass(), writer);
+        }
+    }
+}
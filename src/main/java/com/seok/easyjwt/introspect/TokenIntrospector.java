@@ -0,0 +1,197 @@
+package com.seok.easyjwt.introspect;
+
+import com.seok.easyjwt.exception.ExpiredTokenException;
+import com.seok.easyjwt.exception.InvalidTokenException;
+import com.seok.easyjwt.jwt.JwtTokenProvider;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Verifies many tokens in one call, e.g. for gateways validating fan-out subrequests.
+ * <p>
+ * Tokens are verified in parallel on a bounded pool and each token gets its own {@link IntrospectionResult};
+ * no exception escapes for individual tokens. Tokens are accepted under the same rules as
+ * {@link JwtTokenProvider#getAuthentication(String)}, so refresh and purpose tokens are reported invalid. When users are loaded, each distinct subject of the batch is
+ * looked up once, no matter how many tokens it appears in.
+ * <p>
+ * The introspector owns its thread pool; {@link #close()} shuts it down.
+ */
+public class TokenIntrospector implements AutoCloseable {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserDetailsService userDetailsService;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int maxBatchSize;
+
+    /**
+     * Constructs a new {@code TokenIntrospector}.
+     *
+     * @param jwtTokenProvider   the provider verifying tokens
+     * @param userDetailsService the service used to load the users of valid tokens
+     * @param parallelism        the number of threads used for a batch
+     * @param maxBatchSize       the maximum number of tokens accepted in one batch
+     */
+    public TokenIntrospector(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService,
+                             int parallelism, int maxBatchSize) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Introspection parallelism must be positive");
+        }
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.userDetailsService = userDetailsService;
+        this.parallelism = parallelism;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = Executors.newFixedThreadPool(parallelism, new IntrospectionThreadFactory());
+    }
+
+    /**
+     * Introspects a batch of tokens and loads the users of the valid ones.
+     *
+     * @param tokens the tokens to introspect
+     * @return one result per token, in the same order
+     * @throws IllegalArgumentException if the batch exceeds the maximum batch size
+     */
+    public List<IntrospectionResult> introspect(List<String> tokens) {
+        return introspect(tokens, true);
+    }
+
+    /**
+     * Introspects a batch of tokens.
+     *
+     * @param tokens    the tokens to introspect
+     * @param loadUsers whether the users of valid tokens are loaded; tokens whose user doesn't exist are reported invalid
+     * @return one result per token, in the same order
+     * @throws IllegalArgumentException if the batch exceeds the maximum batch size
+     */
+    public List<IntrospectionResult> introspect(List<String> tokens, boolean loadUsers) {
+        if (tokens.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch of " + tokens.size() + " tokens exceeds the maximum of " + maxBatchSize);
+        }
+
+        IntrospectionResult[] results = new IntrospectionResult[tokens.size()];
+        forEachParallel(results.length, i -> results[i] = verify(tokens.get(i)));
+
+        if (loadUsers) {
+            loadUsers(results);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Returns the maximum number of tokens accepted in one batch.
+     *
+     * @return the maximum batch size
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Shuts down the introspection thread pool.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private IntrospectionResult verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return IntrospectionResult.failed(IntrospectionResult.Status.INVALID, "Missing token");
+        }
+        try {
+            return IntrospectionResult.valid(jwtTokenProvider.verifyAccessToken(token));
+        } catch (ExpiredTokenException e) {
+            return IntrospectionResult.failed(IntrospectionResult.Status.EXPIRED, e.getMessage());
+        } catch (InvalidTokenException e) {
+            return IntrospectionResult.failed(IntrospectionResult.Status.INVALID, e.getMessage());
+        } catch (RuntimeException e) {
+            // E.g. a failing token version lookup, which must not fail the rest of the batch
+            return IntrospectionResult.failed(IntrospectionResult.Status.INVALID, "Token verification failed");
+        }
+    }
+
+    /**
+     * Loads each distinct subject of the valid results once and attaches the user to every matching result.
+     */
+    private void loadUsers(IntrospectionResult[] results) {
+        Map<String, List<Integer>> indexesBySubject = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].isActive() && results[i].getClaims().getSubject() != null) {
+                indexesBySubject.computeIfAbsent(results[i].getClaims().getSubject(), subject -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<String> subjects = new ArrayList<>(indexesBySubject.keySet());
+        UserDetails[] users = new UserDetails[subjects.size()];
+        String[] errors = new String[subjects.size()];
+        forEachParallel(users.length, i -> {
+            try {
+                users[i] = userDetailsService.loadUserByUsername(subjects.get(i));
+            } catch (UsernameNotFoundException e) {
+                errors[i] = "User not found";
+            } catch (RuntimeException e) {
+                errors[i] = "User lookup failed";
+            }
+        });
+
+        for (int i = 0; i < users.length; i++) {
+            for (int index : indexesBySubject.get(subjects.get(i))) {
+                results[index] = errors[i] == null
+                        ? results[index].withUser(users[i])
+                        : IntrospectionResult.failed(IntrospectionResult.Status.INVALID, errors[i]);
+            }
+        }
+    }
+
+    /**
+     * Runs the task for every index, splitting the range into at most {@code parallelism} chunks.
+     * Small ranges are run on the calling thread.
+     */
+    private void forEachParallel(int size, IntConsumer task) {
+        int chunks = Math.min(parallelism, size);
+        if (chunks <= 1) {
+            for (int i = 0; i < size; i++) {
+                task.accept(i);
+            }
+            return;
+        }
+
+        int chunkSize = (size + chunks - 1) / chunks;
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks];
+        for (int c = 0; c < chunks; c++) {
+            int from = c * chunkSize;
+            int to = Math.min(size, from + chunkSize);
+            futures[c] = CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    task.accept(i);
+                }
+            }, executor);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private static final class IntrospectionThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "easy-jwt-introspect-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
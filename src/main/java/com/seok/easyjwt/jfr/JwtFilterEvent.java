@@ -0,0 +1,45 @@
+package com.seok.easyjwt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event recorded for the authentication step of {@link com.seok.easyjwt.jwt.JwtFilter}.
+ * <p>
+ * The duration covers resolving and authenticating the token, not the rest of the filter chain.
+ * Nested {@link TokenVerificationEvent} and {@link UserLoadEvent} events break it down further.
+ */
+@Name("com.seok.easyjwt.JwtFilter")
+@Label("JWT Filter Authentication")
+@Category("Easy-JWT")
+@Description("Authentication of an HTTP request by the JwtFilter")
+@StackTrace(false)
+public final class JwtFilterEvent extends Event {
+
+    @Label("Token Type")
+    private String tokenType;
+
+    @Label("Outcome")
+    @Description("AUTHENTICATED, NO_TOKEN or REJECTED")
+    private String outcome;
+
+    @Label("Subject Hash")
+    @Description("A hash of the authenticated subject, to correlate events without recording user names")
+    private int subjectHash;
+
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public void setSubject(String subject) {
+        this.subjectHash = SubjectHash.of(subject);
+    }
+}
@@ -0,0 +1,36 @@
+package com.seok.easyjwt.jfr;
+
+import java.security.SecureRandom;
+
+/**
+ * Hashes subjects for JFR events, so recordings can correlate events of one user without containing user names.
+ * <p>
+ * The hash is seeded with a random salt chosen when the JVM loads this class, so a recording can't be matched
+ * against hashes of guessed user names computed elsewhere. Hashes are therefore only comparable within one JVM run.
+ * This hides names from casual readers of a recording; it is not a cryptographic guarantee.
+ */
+final class SubjectHash {
+
+    private static final int SALT = new SecureRandom().nextInt();
+
+    private SubjectHash() {
+    }
+
+    static int of(String subject) {
+        if (subject == null) {
+            return 0;
+        }
+        // Mix every char into the salted state, then spread the bits (murmur3 finalizer)
+        int h = SALT;
+        for (int i = 0; i < subject.length(); i++) {
+            h = Integer.rotateLeft((h ^ subject.charAt(i)) * 0x9e3779b1, 15);
+        }
+        h ^= subject.length();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,34 @@
+package com.seok.easyjwt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event recorded for every issued token, covering claims serialization and signing.
+ */
+@Name("com.seok.easyjwt.TokenIssue")
+@Label("JWT Token Issue")
+@Category("Easy-JWT")
+@Description("Generation and signing of a JWT token")
+@StackTrace(false)
+public final class TokenIssueEvent extends Event {
+
+    @Label("Token Type")
+    private String tokenType;
+
+    @Label("Subject Hash")
+    @Description("A hash of the token subject, to correlate events without recording user names")
+    private int subjectHash;
+
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    public void setSubject(String subject) {
+        this.subjectHash = SubjectHash.of(subject);
+    }
+}
@@ -0,0 +1,42 @@
+package com.seok.easyjwt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event recorded for every token verification, covering signature verification and claims parsing.
+ */
+@Name("com.seok.easyjwt.TokenVerification")
+@Label("JWT Token Verification")
+@Category("Easy-JWT")
+@Description("Verification of a JWT token's signature and claims")
+@StackTrace(false)
+public final class TokenVerificationEvent extends Event {
+
+    @Label("Token Type")
+    private String tokenType;
+
+    @Label("Outcome")
+    @Description("VALID, EXPIRED or INVALID")
+    private String outcome;
+
+    @Label("Subject Hash")
+    @Description("A hash of the token subject, to correlate events without recording user names")
+    private int subjectHash;
+
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public void setSubject(String subject) {
+        this.subjectHash = SubjectHash.of(subject);
+    }
+}
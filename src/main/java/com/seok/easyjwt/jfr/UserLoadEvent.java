@@ -0,0 +1,35 @@
+package com.seok.easyjwt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event recorded for every user lookup made to authenticate a token.
+ */
+@Name("com.seok.easyjwt.UserLoad")
+@Label("JWT User Load")
+@Category("Easy-JWT")
+@Description("Lookup of the user of an authenticated token through the QueryJwtUserService")
+@StackTrace(false)
+public final class UserLoadEvent extends Event {
+
+    @Label("Outcome")
+    @Description("FOUND, NOT_FOUND or FAILED")
+    private String outcome;
+
+    @Label("Subject Hash")
+    @Description("A hash of the looked up username, to correlate events without recording user names")
+    private int subjectHash;
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public void setSubject(String subject) {
+        this.subjectHash = SubjectHash.of(subject);
+    }
+}
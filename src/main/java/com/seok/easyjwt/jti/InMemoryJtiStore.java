@@ -0,0 +1,27 @@
+package com.seok.easyjwt.jti;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link JtiStore} keeping redeemed token ids in memory only.
+ * <p>
+ * Redeemed ids are lost on restart, so this store is only suitable for development or for tokens
+ * whose replay after a restart is acceptable. Use {@link MappedJtiStore} for durable single-use checks.
+ */
+public class InMemoryJtiStore implements JtiStore {
+
+    private final ConcurrentHashMap<String, Long> usedIds = new ConcurrentHashMap<>();
+    private volatile int purgeThreshold = 1024;
+
+    @Override
+    public boolean markUsed(String jti, long expiresAt) {
+        boolean first = usedIds.putIfAbsent(jti, expiresAt) == null;
+
+        if (usedIds.size() > purgeThreshold) {
+            long now = System.currentTimeMillis();
+            usedIds.values().removeIf(expiration -> expiration <= now);
+            purgeThreshold = Math.max(1024, usedIds.size() * 2);
+        }
+        return first;
+    }
+}
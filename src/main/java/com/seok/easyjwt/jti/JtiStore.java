@@ -0,0 +1,23 @@
+package com.seok.easyjwt.jti;
+
+/**
+ * Tracks the ids ({@code jti}) of redeemed single-use tokens.
+ * <p>
+ * Implementations must make {@link #markUsed(String, long)} atomic: for a given id, exactly one call
+ * returns {@code true}, even under concurrent redemption attempts. Ids only need to be remembered until
+ * their token expires, since expired tokens are rejected by verification anyway.
+ * <p>
+ * Usage:
+ * - Provide a bean of this type to track redeemed tokens in a shared store (e.g. Redis) in clustered setups.
+ */
+public interface JtiStore {
+
+    /**
+     * Marks a token id as used.
+     *
+     * @param jti       the token id
+     * @param expiresAt the expiration time of the token, in milliseconds since the epoch
+     * @return {@code true} if the id was not used before, {@code false} if the token was already redeemed
+     */
+    boolean markUsed(String jti, long expiresAt);
+}
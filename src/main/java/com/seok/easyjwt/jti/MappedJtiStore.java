@@ -0,0 +1,232 @@
+package com.seok.easyjwt.jti;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A durable {@link JtiStore} backed by an append-only, memory-mapped log file.
+ * <p>
+ * Every redemption appends a small record to the mapped file, which costs a memory copy instead of a
+ * database round trip. An in-memory index answers the single-use checks; it is rebuilt from the log on
+ * startup, skipping expired records. When the log is full, it is compacted into a new file holding only
+ * the ids whose tokens have not expired yet, and grown if necessary.
+ * <p>
+ * Records are written to the page cache, so they survive a process crash. To also survive power loss,
+ * enable {@code sync}, which forces every record to disk at the cost of latency.
+ * <p>
+ * Log layout: an 8-byte header (magic, version) followed by records of
+ * {@code [short length][long expiresAt][length bytes of UTF-8 jti]}. A zero length marks the end of the log.
+ */
+public class MappedJtiStore implements JtiStore, AutoCloseable {
+
+    private static final int MAGIC = 0x454A5449; // "EJTI"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_OVERHEAD = Short.BYTES + Long.BYTES;
+    private static final int MAX_JTI_LENGTH = 1024;
+
+    private final Path path;
+    private final boolean sync;
+    private final ConcurrentHashMap<String, Long> index = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    /**
+     * Opens the log at the given path, creating it if needed, and rebuilds the index from it.
+     *
+     * @param path        the log file
+     * @param initialSize the initial size (in bytes) of a new log file
+     * @param sync        whether every record is forced to disk before {@link #markUsed(String, long)} returns
+     * @throws UncheckedIOException if the log can't be opened or is not a jti log
+     */
+    public MappedJtiStore(Path path, int initialSize, boolean sync) {
+        this.path = path;
+        this.sync = sync;
+
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            int recordsEnd = open(path, Math.max(initialSize, HEADER_SIZE + RECORD_OVERHEAD + MAX_JTI_LENGTH));
+
+            // Compact right away if the log is mostly made of expired records
+            if (recordsEnd - HEADER_SIZE > 2 * liveBytes()) {
+                compact(0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open jti store " + path, e);
+        }
+    }
+
+    @Override
+    public boolean markUsed(String jti, long expiresAt) {
+        byte[] bytes = jti.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0 || bytes.length > MAX_JTI_LENGTH) {
+            throw new IllegalArgumentException("Invalid jti length: " + bytes.length);
+        }
+
+        if (index.putIfAbsent(jti, expiresAt) != null) {
+            return false;
+        }
+
+        try {
+            append(bytes, expiresAt);
+        } catch (IOException | RuntimeException e) {
+            index.remove(jti);
+            throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+        }
+        return true;
+    }
+
+    /**
+     * Rewrites the log without the records of expired tokens.
+     * <p>
+     * Compaction also happens automatically when the log is full; calling this periodically keeps the file small.
+     */
+    public synchronized void compact() {
+        try {
+            compact(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact jti store " + path, e);
+        }
+    }
+
+    /**
+     * Returns the number of ids currently tracked.
+     *
+     * @return the number of tracked ids
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Forces pending records to disk and closes the log.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close jti store " + path, e);
+        }
+    }
+
+    private synchronized void append(byte[] jti, long expiresAt) throws IOException {
+        int recordSize = RECORD_OVERHEAD + jti.length;
+        if (buffer.remaining() < recordSize) {
+            compact(recordSize);
+        }
+
+        // Write the length last, so a torn write is never mistaken for a complete record
+        int position = buffer.position();
+        buffer.putLong(position + Short.BYTES, expiresAt);
+        buffer.put(position + RECORD_OVERHEAD, jti);
+        buffer.putShort(position, (short) jti.length);
+        buffer.position(position + recordSize);
+
+        if (sync) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Maps the log file and loads its unexpired records into the index.
+     *
+     * @return the offset right after the last record
+     */
+    private int open(Path file, int minSize) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), minSize);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        int magic = buffer.getInt(0);
+        if (magic == 0) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+        } else if (magic != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Not a jti store: " + file);
+        }
+
+        long now = System.currentTimeMillis();
+        int position = HEADER_SIZE;
+        while (position + RECORD_OVERHEAD <= buffer.limit()) {
+            int length = buffer.getShort(position);
+            if (length <= 0 || length > MAX_JTI_LENGTH || position + RECORD_OVERHEAD + length > buffer.limit()) {
+                break;
+            }
+            long expiresAt = buffer.getLong(position + Short.BYTES);
+            if (expiresAt > now) {
+                byte[] jti = new byte[length];
+                buffer.get(position + RECORD_OVERHEAD, jti);
+                index.put(new String(jti, StandardCharsets.UTF_8), expiresAt);
+            }
+            position += RECORD_OVERHEAD + length;
+        }
+        buffer.position(position);
+        return position;
+    }
+
+    /**
+     * Drops expired ids and rewrites the log into a new file with room for at least {@code needed} more bytes.
+     */
+    private void compact(int needed) throws IOException {
+        long now = System.currentTimeMillis();
+        index.values().removeIf(expiresAt -> expiresAt <= now);
+
+        // Ids added concurrently after the snapshot are still waiting to be appended and land in the new log
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(index.entrySet());
+        long liveBytes = 0;
+        for (Map.Entry<String, Long> entry : entries) {
+            liveBytes += RECORD_OVERHEAD + entry.getKey().getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        long required = HEADER_SIZE + liveBytes + needed;
+        long size = buffer.capacity();
+        while (size < 2 * required) {
+            size *= 2;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("jti store " + path + " is full");
+        }
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = target.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC).putInt(VERSION);
+            for (Map.Entry<String, Long> entry : entries) {
+                byte[] jti = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.putShort((short) jti.length).putLong(entry.getValue()).put(jti);
+            }
+            out.force();
+        }
+
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        open(path, (int) size);
+    }
+
+    private long liveBytes() {
+        long bytes = 0;
+        for (String jti : index.keySet()) {
+            bytes += RECORD_OVERHEAD + jti.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return bytes;
+    }
+}
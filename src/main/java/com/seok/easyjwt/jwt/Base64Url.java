@@ -0,0 +1,163 @@
+package com.seok.easyjwt.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Decodes base64url (RFC 4648 section 5), as used by the segments of compact JWTs.
+ * <p>
+ * Unlike {@link java.util.Base64}, the decoder reads straight from a range of any {@link CharSequence}, such as a
+ * token held in a network buffer, and writes into a caller-supplied array, so no substring or intermediate array
+ * is needed. It is table-driven and handles four characters per step with a single validity check.
+ * <p>
+ * Padded and unpadded input is accepted; otherwise decoding is exactly as strict as {@code Base64.getUrlDecoder()}:
+ * characters outside the alphabet, misplaced padding and a dangling single character are rejected with an
+ * {@link IllegalArgumentException}.
+ * <p>
+ * Only used by {@link UnverifiedTokens}; signature verification keeps the codec of the JJWT library.
+ */
+final class Base64Url {
+
+    private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    // Sextet of each character below 256, -1 for characters outside the alphabet
+    private static final int[] SEXTETS = new int[256];
+
+    static {
+        Arrays.fill(SEXTETS, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            SEXTETS[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base64Url() {
+    }
+
+    /**
+     * Returns the number of bytes encoded by a range of characters.
+     *
+     * @param src   the characters
+     * @param start the index of the first character
+     * @param end   the index after the last character
+     * @return the number of bytes
+     * @throws IllegalArgumentException if the padding or the length of the input is invalid
+     */
+    static int decodedLength(CharSequence src, int start, int end) {
+        int length = dataEnd(src, start, end) - start;
+        if (length % 4 == 1) {
+            throw new IllegalArgumentException("Invalid base64url length");
+        }
+        return length / 4 * 3 + (length % 4 == 0 ? 0 : length % 4 - 1);
+    }
+
+    /**
+     * Decodes a string.
+     *
+     * @param src the characters to decode
+     * @return the decoded bytes
+     * @throws IllegalArgumentException if the input is not valid base64url
+     */
+    static byte[] decode(CharSequence src) {
+        byte[] dst = new byte[decodedLength(src, 0, src.length())];
+        decode(src, 0, src.length(), dst, 0);
+        return dst;
+    }
+
+    /**
+     * Decodes a range of characters into a caller-supplied array.
+     *
+     * @param src       the characters to decode
+     * @param start     the index of the first character
+     * @param end       the index after the last character
+     * @param dst       the array receiving the bytes, with room for {@link #decodedLength(CharSequence, int, int)} of them
+     * @param dstOffset the index the first byte is written at
+     * @return the number of bytes written
+     * @throws IllegalArgumentException  if the input is not valid base64url
+     * @throws IndexOutOfBoundsException if a range is out of bounds
+     */
+    static int decode(CharSequence src, int start, int end, byte[] dst, int dstOffset) {
+        if (start < 0 || end > src.length() || start > end) {
+            throw new IndexOutOfBoundsException("Base64url range out of bounds");
+        }
+        int dataEnd = dataEnd(src, start, end);
+        int length = dataEnd - start;
+        if (length % 4 == 1) {
+            throw new IllegalArgumentException("Invalid base64url length");
+        }
+        int decodedLength = length / 4 * 3 + (length % 4 == 0 ? 0 : length % 4 - 1);
+        if (dstOffset < 0 || dstOffset > dst.length - decodedLength) {
+            throw new IndexOutOfBoundsException("Base64url range out of bounds");
+        }
+
+        int sp = start;
+        int dp = dstOffset;
+        int wholeEnd = start + length / 4 * 4;
+        while (sp < wholeEnd) {
+            int s0 = sextet(src.charAt(sp));
+            int s1 = sextet(src.charAt(sp + 1));
+            int s2 = sextet(src.charAt(sp + 2));
+            int s3 = sextet(src.charAt(sp + 3));
+            // A single branch for the four characters, any invalid one makes the union negative
+            if ((s0 | s1 | s2 | s3) < 0) {
+                throw invalidCharacter(src, sp, sp + 4);
+            }
+            int bits = s0 << 18 | s1 << 12 | s2 << 6 | s3;
+            dst[dp] = (byte) (bits >> 16);
+            dst[dp + 1] = (byte) (bits >> 8);
+            dst[dp + 2] = (byte) bits;
+            sp += 4;
+            dp += 3;
+        }
+
+        int remaining = dataEnd - sp;
+        if (remaining > 0) {
+            int s0 = sextet(src.charAt(sp));
+            int s1 = sextet(src.charAt(sp + 1));
+            int s2 = remaining == 3 ? sextet(src.charAt(sp + 2)) : 0;
+            if ((s0 | s1 | s2) < 0) {
+                throw invalidCharacter(src, sp, dataEnd);
+            }
+            int bits = s0 << 18 | s1 << 12 | s2 << 6;
+            dst[dp++] = (byte) (bits >> 16);
+            if (remaining == 3) {
+                dst[dp++] = (byte) (bits >> 8);
+            }
+        }
+        return decodedLength;
+    }
+
+    private static int sextet(char c) {
+        return c < 256 ? SEXTETS[c] : -1;
+    }
+
+    /**
+     * Returns the end of the data characters, validating the trailing padding if any.
+     */
+    private static int dataEnd(CharSequence src, int start, int end) {
+        int pad = end;
+        while (pad > start && src.charAt(pad - 1) == '=') {
+            pad--;
+        }
+        if (pad == end) {
+            return end;
+        }
+        // Padding completes the last 4-character unit: "xx==" or "xxx="
+        int padCount = end - pad;
+        int unit = (pad - start) % 4;
+        if (!(unit == 2 && padCount == 2 || unit == 3 && padCount == 1)) {
+            throw new IllegalArgumentException("Invalid base64url padding");
+        }
+        return pad;
+    }
+
+    private static IllegalArgumentException invalidCharacter(CharSequence src, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (sextet(src.charAt(i)) < 0) {
+                return new IllegalArgumentException("Illegal base64url character " + Integer.toHexString(src.charAt(i))
+                        + " at index " + i);
+            }
+        }
+        return new IllegalArgumentException("Illegal base64url character");
+    }
+}
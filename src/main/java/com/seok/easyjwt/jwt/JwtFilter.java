@@ -1,9 +1,16 @@
 package com.seok.easyjwt.jwt;
 
+import com.seok.easyjwt.auth.JwtAuthentication;
+import com.seok.easyjwt.auth.JwtUserDetails;
+import com.seok.easyjwt.jfr.JwtFilterEvent;
+import com.seok.easyjwt.user.CurrentUserScope;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,11 +30,26 @@ import java.io.IOException;
  * Usage:
  * - This filter should be registered as part of the Spring Security filter chain.
  * - JWT tokens are resolved from the request header specified in {@link JwtProperties#getHeaderString()}.
+ * - In multi-tenant setups, the tenant is taken from the {@link JwtTenantRegistry#TENANT_ATTRIBUTE} request attribute
+ *   or, if absent, from the token issuer.
+ * - With a {@link SlidingSessionRenewer}, tokens close to expiring are renewed and returned in the response.
+ * - With principal binding enabled, the authenticated principal is also bound in a {@link CurrentUserScope}
+ *   for the rest of the chain.
+ * - The verified claims are exposed in the {@link #CLAIMS_ATTRIBUTE} request attribute, so they don't need to be
+ *   parsed again by the application.
+ * - The authentication step emits a {@link JwtFilterEvent} JFR event while a recording has it enabled.
  */
 public class JwtFilter extends OncePerRequestFilter {
 //    private final Logger log = LoggerFactory.getLogger(JwtFilter.class);
 
+    /**
+     * The request attribute holding the verified {@link Claims} of the request token.
+     */
+    public static final String CLAIMS_ATTRIBUTE = JwtFilter.class.getName() + ".CLAIMS";
+
     private final JwtTokenProvider jwtTokenProvider;
+    private final SlidingSessionRenewer slidingSessionRenewer;
+    private final boolean bindPrincipal;
 
     /**
      * Constructs a new {@code JwtFilter} with the specified {@code JwtTokenProvider}.
@@ -35,7 +57,30 @@ public class JwtFilter extends OncePerRequestFilter {
      * @param jwtTokenProvider the token provider used for resolving and validating JWT tokens
      */
     public JwtFilter(JwtTokenProvider jwtTokenProvider) {
+        this(jwtTokenProvider, null);
+    }
+
+    /**
+     * Constructs a new {@code JwtFilter} that also renews access tokens close to expiring.
+     *
+     * @param jwtTokenProvider      the token provider used for resolving and validating JWT tokens
+     * @param slidingSessionRenewer the renewer for near-expiry tokens, or {@code null} to disable renewal
+     */
+    public JwtFilter(JwtTokenProvider jwtTokenProvider, SlidingSessionRenewer slidingSessionRenewer) {
+        this(jwtTokenProvider, slidingSessionRenewer, false);
+    }
+
+    /**
+     * Constructs a new {@code JwtFilter} that can also bind the principal for the rest of the chain.
+     *
+     * @param jwtTokenProvider      the token provider used for resolving and validating JWT tokens
+     * @param slidingSessionRenewer the renewer for near-expiry tokens, or {@code null} to disable renewal
+     * @param bindPrincipal         whether the authenticated principal is bound in a {@link CurrentUserScope}
+     */
+    public JwtFilter(JwtTokenProvider jwtTokenProvider, SlidingSessionRenewer slidingSessionRenewer, boolean bindPrincipal) {
         this.jwtTokenProvider = jwtTokenProvider;
+        this.slidingSessionRenewer = slidingSessionRenewer;
+        this.bindPrincipal = bindPrincipal;
     }
 
     /**
@@ -59,12 +104,93 @@ public class JwtFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain
     ) throws ServletException, IOException {
+        JwtFilterEvent event = new JwtFilterEvent();
+        Authentication authentication = event.isEnabled()
+                ? authenticateRecorded(event, request, response)
+                : authenticate(request, response);
+
+        // Continue with the filter chain
+        if (bindPrincipal && authentication != null && authentication.getPrincipal() instanceof JwtUserDetails) {
+            doFilterBound((JwtUserDetails) authentication.getPrincipal(), request, response, filterChain);
+        } else {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * Continues the chain with the principal bound in the {@link CurrentUserScope}.
+     */
+    private void doFilterBound(
+            JwtUserDetails principal,
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        try {
+            CurrentUserScope.callWhere(principal, () -> {
+                filterChain.doFilter(request, response);
+                return null;
+            });
+        } catch (ServletException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // Unreachable, the chain only throws the exceptions above
+            throw new ServletException(e);
+        }
+    }
+
+    /**
+     * Authenticates the request, recording the outcome in a {@link JwtFilterEvent}.
+     * The event only covers authentication, not the rest of the chain.
+     */
+    private Authentication authenticateRecorded(JwtFilterEvent event, HttpServletRequest request, HttpServletResponse response) {
+        event.begin();
+        // Stays REJECTED if authentication throws
+        String outcome = "REJECTED";
+        Authentication authentication = null;
+        try {
+            authentication = authenticate(request, response);
+            outcome = authentication != null ? "AUTHENTICATED" : "NO_TOKEN";
+            return authentication;
+        } finally {
+            if (event.shouldCommit()) {
+                event.setOutcome(outcome);
+                if (authentication != null) {
+                    event.setSubject(authentication.getName());
+                    Claims claims = claimsOf(authentication);
+                    if (claims != null) {
+                        event.setTokenType(claims.get(JwtTokenProvider.TYPE_CLAIM, String.class));
+                    }
+                }
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Resolves and authenticates the token of the request, if any.
+     *
+     * @return the authentication set in the {@link SecurityContextHolder}, or {@code null} without a token
+     */
+    private Authentication authenticate(HttpServletRequest request, HttpServletResponse response) {
         String token = jwtTokenProvider.resolveToken(request);
 
         if (token != null) {
-            Authentication authentication = jwtTokenProvider.getAuthentication(token);
+            // The tenant may have been resolved upstream, e.g. from the host name
+            Object tenantId = request.getAttribute(JwtTenantRegistry.TENANT_ATTRIBUTE);
+            Authentication authentication = tenantId != null
+                    ? jwtTokenProvider.getAuthentication(token, tenantId.toString())
+                    : jwtTokenProvider.getAuthentication(token);
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
+            Claims claims = claimsOf(authentication);
+            if (claims != null) {
+                request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+                if (slidingSessionRenewer != null) {
+                    renewToken(claims, request, response);
+                }
+            }
+
             // Users should handle errors with like @ControllerAdvice
 //            try {
 //
@@ -75,9 +201,43 @@ public class JwtFilter extends OncePerRequestFilter {
 //                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token.");
 //                return;
 //            }
+            return authentication;
         }
+        return null;
+    }
 
-        // Continue with the filter chain
-        filterChain.doFilter(request, response);
+    /**
+     * Returns the verified claims of an authentication, carried by a {@link JwtAuthentication} or as its details.
+     */
+    private static Claims claimsOf(Authentication authentication) {
+        if (authentication instanceof JwtAuthentication && ((JwtAuthentication) authentication).getClaims() != null) {
+            return ((JwtAuthentication) authentication).getClaims();
+        }
+        return authentication.getDetails() instanceof Claims ? (Claims) authentication.getDetails() : null;
+    }
+
+    /**
+     * Writes a renewed access token to the response if the current one is close to expiring.
+     * <p>
+     * This runs before the rest of the chain, while the response headers can still be modified.
+     */
+    private void renewToken(Claims claims, HttpServletRequest request, HttpServletResponse response) {
+        String renewedToken = slidingSessionRenewer.renewIfExpiring(claims);
+        if (renewedToken == null) {
+            return;
+        }
+
+        if (slidingSessionRenewer.getHeaderName() != null) {
+            response.setHeader(slidingSessionRenewer.getHeaderName(), renewedToken);
+        }
+        if (slidingSessionRenewer.getCookieName() != null) {
+            ResponseCookie cookie = ResponseCookie.from(slidingSessionRenewer.getCookieName(), renewedToken)
+                    .httpOnly(true)
+                    .secure(request.isSecure())
+                    .path("/")
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,11 @@
 package com.seok.easyjwt.jwt;
 
+import com.seok.easyjwt.audit.AsyncAuditLog;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Configuration properties for the Easy-JWT library.
  * <p>
@@ -45,6 +49,94 @@ public class JwtProperties {
      */
     private String headerString = "Authorization";
 
+    /**
+     * Indicates whether user details are loaded lazily. Defaults to {@code false}.
+     * <p>
+     * When enabled, the authenticated principal exposes the username straight from the token subject and
+     * only queries the user when its authorities or {@link com.seok.easyjwt.user.JwtUser} are first accessed.
+     */
+    private boolean lazyPrincipal = false;
+
+    /**
+     * Indicates whether tokens carry the token version of their user in the {@code ver} claim. Defaults to {@code false}.
+     * <p>
+     * When enabled, access tokens older than the current version of their user are rejected, so bumping a version
+     * through {@link com.seok.easyjwt.version.InMemoryTokenVersionSource#bump(String)} revokes all tokens of the user.
+     */
+    private boolean tokenVersion = false;
+
+    /**
+     * Indicates whether {@link JwtFilter} binds the authenticated principal in a
+     * {@link com.seok.easyjwt.user.CurrentUserScope} for the rest of the filter chain. Defaults to {@code false}.
+     * <p>
+     * The security context is still populated, so both ways of reading the current user keep working.
+     */
+    private boolean scopedPrincipal = false;
+
+    /**
+     * Micro-batching settings for user lookups, see {@link com.seok.easyjwt.user.BatchingQueryJwtUserService}.
+     */
+    private final UserBatching userBatching = new UserBatching();
+
+    /**
+     * User cache settings, see {@link com.seok.easyjwt.user.JwtUserCache}.
+     */
+    private final UserCache userCache = new UserCache();
+
+    /**
+     * Speculative user lookup settings, see {@link com.seok.easyjwt.auth.SpeculativeUserLookup}.
+     */
+    private final SpeculativeLookup speculativeLookup = new SpeculativeLookup();
+
+    /**
+     * Long-lived connection settings, see {@link com.seok.easyjwt.connection.ConnectionAuthRegistry}.
+     */
+    private final ConnectionAuth connectionAuth = new ConnectionAuth();
+
+    /**
+     * Per-user session settings, see {@link com.seok.easyjwt.session.SessionRegistry}.
+     */
+    private final Sessions sessions = new Sessions();
+
+    /**
+     * Outgoing service token settings, see {@link com.seok.easyjwt.client.ServiceTokenCache}.
+     */
+    private final ServiceToken serviceToken = new ServiceToken();
+
+    /**
+     * Sliding session settings. When enabled, {@link JwtFilter} hands out a renewed access token
+     * for requests whose token is about to expire, so clients can skip a separate refresh call.
+     */
+    private final SlidingSession slidingSession = new SlidingSession();
+
+    /**
+     * Per-tenant signing settings, keyed by tenant id ({@code easy-jwt.tenants.<id>.*}).
+     * <p>
+     * Tokens issued for a tenant carry the tenant issuer as {@code iss} and are signed with the tenant secret.
+     */
+    private Map<String, Tenant> tenants = new LinkedHashMap<>();
+
+    /**
+     * Batch token introspection settings, see {@link com.seok.easyjwt.introspect.TokenIntrospector}.
+     */
+    private final Introspection introspection = new Introspection();
+
+    /**
+     * Single-use token purposes, keyed by purpose name ({@code easy-jwt.purposes.<name>.*}),
+     * e.g. {@code email-verification} or {@code password-reset}.
+     */
+    private Map<String, Purpose> purposes = new LinkedHashMap<>();
+
+    /**
+     * Settings of the store tracking redeemed purpose tokens.
+     */
+    private final JtiStore jtiStore = new JtiStore();
+
+    /**
+     * Audit log settings, see {@link AsyncAuditLog}.
+     */
+    private final Audit audit = new Audit();
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -92,4 +184,718 @@ public class JwtProperties {
     public void setHeaderString(String headerString) {
         this.headerString = headerString;
     }
+
+    public boolean isLazyPrincipal() {
+        return lazyPrincipal;
+    }
+
+    public void setLazyPrincipal(boolean lazyPrincipal) {
+        this.lazyPrincipal = lazyPrincipal;
+    }
+
+    public boolean isTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(boolean tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    public boolean isScopedPrincipal() {
+        return scopedPrincipal;
+    }
+
+    public void setScopedPrincipal(boolean scopedPrincipal) {
+        this.scopedPrincipal = scopedPrincipal;
+    }
+
+    public UserBatching getUserBatching() {
+        return userBatching;
+    }
+
+    public UserCache getUserCache() {
+        return userCache;
+    }
+
+    public SpeculativeLookup getSpeculativeLookup() {
+        return speculativeLookup;
+    }
+
+    public ConnectionAuth getConnectionAuth() {
+        return connectionAuth;
+    }
+
+    public Sessions getSessions() {
+        return sessions;
+    }
+
+    public ServiceToken getServiceToken() {
+        return serviceToken;
+    }
+
+    public SlidingSession getSlidingSession() {
+        return slidingSession;
+    }
+
+    public Map<String, Tenant> getTenants() {
+        return tenants;
+    }
+
+    public void setTenants(Map<String, Tenant> tenants) {
+        this.tenants = tenants;
+    }
+
+    public Introspection getIntrospection() {
+        return introspection;
+    }
+
+    public Map<String, Purpose> getPurposes() {
+        return purposes;
+    }
+
+    public void setPurposes(Map<String, Purpose> purposes) {
+        this.purposes = purposes;
+    }
+
+    public JtiStore getJtiStore() {
+        return jtiStore;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
+    /**
+     * Settings for merging concurrent user lookups into bulk queries ({@code easy-jwt.user-batching.*}).
+     */
+    public static class UserBatching {
+
+        /**
+         * Indicates whether concurrent lookups are merged through
+         * {@link com.seok.easyjwt.user.QueryJwtUserService#executeAll(java.util.Collection)}. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long (in milliseconds) lookups are collected before a batch is fetched. Defaults to 2 milliseconds.
+         */
+        private long windowMillis = 2L;
+
+        /**
+         * The number of distinct usernames after which a batch is fetched without waiting for the window. Defaults to 64.
+         */
+        private int maxKeys = 64;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getWindowMillis() {
+            return windowMillis;
+        }
+
+        public void setWindowMillis(long windowMillis) {
+            this.windowMillis = windowMillis;
+        }
+
+        public int getMaxKeys() {
+            return maxKeys;
+        }
+
+        public void setMaxKeys(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+    }
+
+    /**
+     * Settings of the cache in front of the {@link com.seok.easyjwt.user.QueryJwtUserService} ({@code easy-jwt.user-cache.*}).
+     */
+    public static class UserCache {
+
+        /**
+         * Indicates whether loaded users are cached. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long (in seconds) a user is cached. Defaults to 5 minutes (300 seconds).
+         */
+        private Long ttl = 300L;
+
+        /**
+         * The maximum number of cached users. Defaults to 10000.
+         */
+        private int maxSize = 10000;
+
+        /**
+         * The file the most used users are written to on shutdown and loaded from on startup.
+         * When unset, every node starts with an empty cache.
+         */
+        private String snapshotPath;
+
+        /**
+         * The number of most used users written to the snapshot. Defaults to 1000.
+         */
+        private int snapshotSize = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Long getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Long ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public String getSnapshotPath() {
+            return snapshotPath;
+        }
+
+        public void setSnapshotPath(String snapshotPath) {
+            this.snapshotPath = snapshotPath;
+        }
+
+        public int getSnapshotSize() {
+            return snapshotSize;
+        }
+
+        public void setSnapshotSize(int snapshotSize) {
+            this.snapshotSize = snapshotSize;
+        }
+    }
+
+    /**
+     * Settings for loading users while their token is verified ({@code easy-jwt.speculative-lookup.*}).
+     */
+    public static class SpeculativeLookup {
+
+        /**
+         * Indicates whether users are looked up before the token signature has been verified. Defaults to {@code false}.
+         * <p>
+         * Has no effect with {@code lazy-principal}, which doesn't load users during authentication.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The maximum number of speculative lookups in flight. Further requests look users up after
+         * verification, so forged tokens can't trigger more lookups than this. Defaults to 64.
+         */
+        private int maxConcurrent = 64;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+
+    /**
+     * Settings for expiring long-lived connections with their token ({@code easy-jwt.connection-auth.*}).
+     */
+    public static class ConnectionAuth {
+
+        /**
+         * Indicates whether a {@link com.seok.easyjwt.connection.ConnectionAuthRegistry} is provided to expire
+         * WebSocket and SSE connections with their token. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The resolution of connection expiries, in milliseconds. Defaults to 100 milliseconds.
+         */
+        private long tick = 100L;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTick() {
+            return tick;
+        }
+
+        public void setTick(long tick) {
+            this.tick = tick;
+        }
+    }
+
+    /**
+     * Settings for refresh token sessions ({@code easy-jwt.sessions.*}).
+     */
+    public static class Sessions {
+
+        /**
+         * Indicates whether refresh tokens open sessions tracked by a {@link com.seok.easyjwt.session.SessionRegistry}.
+         * Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The maximum number of active sessions per user; the oldest ones are evicted beyond it. Defaults to 5.
+         */
+        private int maxPerUser = 5;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxPerUser() {
+            return maxPerUser;
+        }
+
+        public void setMaxPerUser(int maxPerUser) {
+            this.maxPerUser = maxPerUser;
+        }
+    }
+
+    /**
+     * Settings for cached tokens of outgoing service calls ({@code easy-jwt.service-token.*}).
+     */
+    public static class ServiceToken {
+
+        /**
+         * Indicates whether a {@link com.seok.easyjwt.client.ServiceTokenCache} is provided for outgoing calls.
+         * Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long before expiry cached tokens are renewed in the background, in seconds. Must be shorter than
+         * {@code access-token-expiration}. Defaults to 60 seconds.
+         */
+        private Long renewBefore = 60L;
+
+        /**
+         * The maximum number of cached tokens, one per subject and claims. Defaults to 1000.
+         */
+        private int maxSize = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Long getRenewBefore() {
+            return renewBefore;
+        }
+
+        public void setRenewBefore(Long renewBefore) {
+            this.renewBefore = renewBefore;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * Settings for proactive access token renewal ({@code easy-jwt.sliding-session.*}).
+     */
+    public static class SlidingSession {
+
+        /**
+         * Indicates whether near-expiry access tokens are renewed by {@link JwtFilter}. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How close (in seconds) to its expiration a token must be to get renewed. Defaults to 60 seconds.
+         */
+        private Long window = 60L;
+
+        /**
+         * The minimum time (in seconds) between two renewals for the same subject. Concurrent requests
+         * carrying the same expiring token only trigger one renewal. Defaults to 10 seconds.
+         */
+        private Long minInterval = 10L;
+
+        /**
+         * The response header carrying the renewed token. Defaults to "X-Renewed-Token".
+         */
+        private String headerName = "X-Renewed-Token";
+
+        /**
+         * The name of an HTTP-only cookie carrying the renewed token. No cookie is written when unset.
+         */
+        private String cookieName;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Long getWindow() {
+            return window;
+        }
+
+        public void setWindow(Long window) {
+            this.window = window;
+        }
+
+        public Long getMinInterval() {
+            return minInterval;
+        }
+
+        public void setMinInterval(Long minInterval) {
+            this.minInterval = minInterval;
+        }
+
+        public String getHeaderName() {
+            return headerName;
+        }
+
+        public void setHeaderName(String headerName) {
+            this.headerName = headerName;
+        }
+
+        public String getCookieName() {
+            return cookieName;
+        }
+
+        public void setCookieName(String cookieName) {
+            this.cookieName = cookieName;
+        }
+    }
+
+    /**
+     * Settings for batch token introspection ({@code easy-jwt.introspection.*}).
+     */
+    public static class Introspection {
+
+        /**
+         * Indicates whether the {@link com.seok.easyjwt.introspect.TokenIntrospector} is available. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The number of threads verifying tokens and loading users in parallel. Defaults to the number of processors.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * The maximum number of tokens accepted in one batch. Defaults to 256.
+         */
+        private int maxBatchSize = 256;
+
+        /**
+         * Indicates whether the introspection endpoint is exposed. Defaults to {@code false}.
+         * <p>
+         * The endpoint returns token claims, so access to it must be restricted in the security configuration.
+         */
+        private boolean endpointEnabled = false;
+
+        /**
+         * The path of the introspection endpoint. Defaults to "/easy-jwt/introspect".
+         */
+        private String endpointPath = "/easy-jwt/introspect";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public boolean isEndpointEnabled() {
+            return endpointEnabled;
+        }
+
+        public void setEndpointEnabled(boolean endpointEnabled) {
+            this.endpointEnabled = endpointEnabled;
+        }
+
+        public String getEndpointPath() {
+            return endpointPath;
+        }
+
+        public void setEndpointPath(String endpointPath) {
+            this.endpointPath = endpointPath;
+        }
+    }
+
+    /**
+     * Settings of a single-use token purpose ({@code easy-jwt.purposes.<name>.*}).
+     */
+    public static class Purpose {
+
+        /**
+         * The expiration time (in seconds) for tokens of this purpose. Defaults to 15 minutes (900 seconds).
+         */
+        private Long expiration = 900L;
+
+        public Long getExpiration() {
+            return expiration;
+        }
+
+        public void setExpiration(Long expiration) {
+            this.expiration = expiration;
+        }
+    }
+
+    /**
+     * Settings of the store tracking redeemed purpose tokens ({@code easy-jwt.jti-store.*}).
+     */
+    public static class JtiStore {
+
+        /**
+         * The file of the append-only, memory-mapped jti log. When unset, redeemed tokens are only kept in memory
+         * and can be redeemed again after a restart.
+         */
+        private String path;
+
+        /**
+         * The initial size (in bytes) of the jti log file. The file grows when needed. Defaults to 1 MiB.
+         */
+        private int initialSize = 1024 * 1024;
+
+        /**
+         * Indicates whether every redemption is forced to disk before returning. Defaults to {@code false},
+         * which survives process crashes but not power loss.
+         */
+        private boolean sync = false;
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public int getInitialSize() {
+            return initialSize;
+        }
+
+        public void setInitialSize(int initialSize) {
+            this.initialSize = initialSize;
+        }
+
+        public boolean isSync() {
+            return sync;
+        }
+
+        public void setSync(boolean sync) {
+            this.sync = sync;
+        }
+    }
+
+    /**
+     * Settings of the asynchronous audit log ({@code easy-jwt.audit.*}).
+     */
+    public static class Audit {
+
+        /**
+         * Indicates whether token issues, renewals, redemptions and rejections are audited. Defaults to {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The audit file written by the default sink. Defaults to "easy-jwt-audit.log".
+         */
+        private String file = "easy-jwt-audit.log";
+
+        /**
+         * The size (in bytes) after which the audit file is rolled over. Defaults to 10 MiB.
+         */
+        private long maxFileSize = 10L * 1024 * 1024;
+
+        /**
+         * The number of rolled over audit files kept. Defaults to 5.
+         */
+        private int maxHistory = 5;
+
+        /**
+         * The number of events buffered for the writer thread, rounded up to a power of two. Defaults to 8192.
+         */
+        private int bufferSize = 8192;
+
+        /**
+         * The maximum number of events written to the sink at once. Defaults to 256.
+         */
+        private int batchSize = 256;
+
+        /**
+         * What happens to events while the buffer is full. Defaults to {@code DROP}, which never delays requests.
+         */
+        private AsyncAuditLog.OverflowPolicy overflowPolicy = AsyncAuditLog.OverflowPolicy.DROP;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public long getMaxFileSize() {
+            return maxFileSize;
+        }
+
+        public void setMaxFileSize(long maxFileSize) {
+            this.maxFileSize = maxFileSize;
+        }
+
+        public int getMaxHistory() {
+            return maxHistory;
+        }
+
+        public void setMaxHistory(int maxHistory) {
+            this.maxHistory = maxHistory;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public AsyncAuditLog.OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(AsyncAuditLog.OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+    }
+
+    /**
+     * Signing settings of a single tenant ({@code easy-jwt.tenants.<id>.*}).
+     * <p>
+     * Expiration times that are left unset fall back to the global settings.
+     */
+    public static class Tenant {
+
+        /**
+         * The secret key used for signing and verifying the tenant's tokens. Must be at least 256 bits (32 characters).
+         */
+        private String secret;
+
+        /**
+         * The {@code iss} claim identifying the tenant's tokens. Defaults to the tenant id.
+         */
+        private String issuer;
+
+        /**
+         * The expiration time (in seconds) for the tenant's access tokens.
+         */
+        private Long accessTokenExpiration;
+
+        /**
+         * The expiration time (in seconds) for the tenant's refresh tokens.
+         */
+        private Long refreshTokenExpiration;
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public String getIssuer() {
+            return issuer;
+        }
+
+        public void setIssuer(String issuer) {
+            this.issuer = issuer;
+        }
+
+        public Long getAccessTokenExpiration() {
+            return accessTokenExpiration;
+        }
+
+        public void setAccessTokenExpiration(Long accessTokenExpiration) {
+            this.accessTokenExpiration = accessTokenExpiration;
+        }
+
+        public Long getRefreshTokenExpiration() {
+            return refreshTokenExpiration;
+        }
+
+        public void setRefreshTokenExpiration(Long refreshTokenExpiration) {
+            this.refreshTokenExpiration = refreshTokenExpiration;
+        }
+    }
 }
@@ -0,0 +1,80 @@
+package com.seok.easyjwt.jwt;
+
+import com.seok.easyjwt.core.JwtIssuer;
+import com.seok.easyjwt.core.JwtVerifier;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An immutable, fully resolved tenant of a multi-tenant setup.
+ * <p>
+ * The {@link JwtIssuer} and {@link JwtVerifier} of the tenant are built once, when the tenant is
+ * registered, so that dispatching a request to a tenant doesn't construct parsers or read properties.
+ */
+public final class JwtTenant {
+
+    private final String id;
+    private final String issuer;
+    private final JwtIssuer jwtIssuer;
+    private final JwtVerifier jwtVerifier;
+    private final Long accessTokenExpiration;
+    private final Long refreshTokenExpiration;
+
+    private JwtTenant(String id, String issuer, SecretKey secretKey, Long accessTokenExpiration, Long refreshTokenExpiration) {
+        this.id = id;
+        this.issuer = issuer;
+        this.jwtIssuer = new JwtIssuer(secretKey, issuer);
+        this.jwtVerifier = new JwtVerifier(secretKey, issuer);
+        this.accessTokenExpiration = accessTokenExpiration;
+        this.refreshTokenExpiration = refreshTokenExpiration;
+    }
+
+    /**
+     * Creates a tenant from its configuration, falling back to the global expiration times where unset.
+     *
+     * @param id       the tenant id
+     * @param tenant   the tenant configuration
+     * @param defaults the global configuration
+     * @return the resolved tenant
+     * @throws IllegalArgumentException if the tenant secret is null or empty
+     */
+    public static JwtTenant of(String id, JwtProperties.Tenant tenant, JwtProperties defaults) {
+        if (tenant.getSecret() == null || tenant.getSecret().isEmpty()) {
+            throw new IllegalArgumentException("JWT secret of tenant '" + id + "' cannot be null or empty");
+        }
+
+        return new JwtTenant(
+                id,
+                tenant.getIssuer() != null ? tenant.getIssuer() : id,
+                Keys.hmacShaKeyFor(tenant.getSecret().getBytes(StandardCharsets.UTF_8)),
+                tenant.getAccessTokenExpiration() != null ? tenant.getAccessTokenExpiration() : defaults.getAccessTokenExpiration(),
+                tenant.getRefreshTokenExpiration() != null ? tenant.getRefreshTokenExpiration() : defaults.getRefreshTokenExpiration()
+        );
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public JwtIssuer getJwtIssuer() {
+        return jwtIssuer;
+    }
+
+    public JwtVerifier getJwtVerifier() {
+        return jwtVerifier;
+    }
+
+    public Long getAccessTokenExpiration() {
+        return accessTokenExpiration;
+    }
+
+    public Long getRefreshTokenExpiration() {
+        return refreshTokenExpiration;
+    }
+}
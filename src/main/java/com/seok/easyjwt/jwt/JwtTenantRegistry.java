@@ -0,0 +1,127 @@
+package com.seok.easyjwt.jwt;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the tenants of a multi-tenant setup and dispatches tokens to them.
+ * <p>
+ * Lookups read an immutable snapshot of the tenants by id and by issuer, without locking. Adding or
+ * removing a tenant builds a new snapshot and swaps it in, so tenants can be changed at runtime without
+ * restarting the application context.
+ * <p>
+ * The tenant of a request is taken from the {@link #TENANT_ATTRIBUTE} request attribute if present
+ * (e.g. set by a filter resolving the tenant from the host name), or otherwise from the token's {@code iss} claim.
+ */
+public class JwtTenantRegistry {
+
+    /**
+     * The request attribute holding the id of the tenant a request belongs to.
+     */
+    public static final String TENANT_ATTRIBUTE = JwtTenantRegistry.class.getName() + ".TENANT";
+
+    private final JwtProperties jwtProperties;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructs a new {@code JwtTenantRegistry} with the tenants configured in {@link JwtProperties#getTenants()}.
+     *
+     * @param jwtProperties the configuration properties for JWT tokens
+     */
+    public JwtTenantRegistry(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+
+        Map<String, JwtTenant> tenants = new HashMap<>();
+        jwtProperties.getTenants().forEach((id, tenant) -> tenants.put(id, JwtTenant.of(id, tenant, jwtProperties)));
+        this.snapshot = Snapshot.of(tenants);
+    }
+
+    /**
+     * Adds a tenant, replacing any existing tenant with the same id.
+     *
+     * @param id     the tenant id
+     * @param tenant the tenant configuration
+     * @return the registered tenant
+     * @throws IllegalArgumentException if the tenant secret is null or empty
+     */
+    public synchronized JwtTenant register(String id, JwtProperties.Tenant tenant) {
+        JwtTenant jwtTenant = JwtTenant.of(id, tenant, jwtProperties);
+
+        Map<String, JwtTenant> tenants = new HashMap<>(snapshot.byId);
+        tenants.put(id, jwtTenant);
+        snapshot = Snapshot.of(tenants);
+        return jwtTenant;
+    }
+
+    /**
+     * Removes a tenant. Tokens of the tenant are rejected from then on.
+     *
+     * @param id the tenant id
+     */
+    public synchronized void remove(String id) {
+        Map<String, JwtTenant> tenants = new HashMap<>(snapshot.byId);
+        if (tenants.remove(id) != null) {
+            snapshot = Snapshot.of(tenants);
+        }
+    }
+
+    /**
+     * Finds a tenant by its id.
+     *
+     * @param id the tenant id
+     * @return the tenant, or {@code null} if no such tenant exists
+     */
+    public JwtTenant findById(String id) {
+        return snapshot.byId.get(id);
+    }
+
+    /**
+     * Finds a tenant by the issuer of its tokens.
+     *
+     * @param issuer the {@code iss} claim
+     * @return the tenant, or {@code null} if no tenant uses this issuer
+     */
+    public JwtTenant findByIssuer(String issuer) {
+        return issuer != null ? snapshot.byIssuer.get(issuer) : null;
+    }
+
+    /**
+     * Returns all registered tenants.
+     *
+     * @return the registered tenants
+     */
+    public Collection<JwtTenant> getTenants() {
+        return snapshot.byId.values();
+    }
+
+    /**
+     * Returns whether no tenant is registered.
+     *
+     * @return {@code true} if no tenant is registered
+     */
+    public boolean isEmpty() {
+        return snapshot.byId.isEmpty();
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, JwtTenant> byId;
+        private final Map<String, JwtTenant> byIssuer;
+
+        private Snapshot(Map<String, JwtTenant> byId, Map<String, JwtTenant> byIssuer) {
+            this.byId = byId;
+            this.byIssuer = byIssuer;
+        }
+
+        private static Snapshot of(Map<String, JwtTenant> tenants) {
+            Map<String, JwtTenant> byIssuer = new HashMap<>();
+            for (JwtTenant tenant : tenants.values()) {
+                if (byIssuer.put(tenant.getIssuer(), tenant) != null) {
+                    throw new IllegalArgumentException("Duplicate tenant issuer: " + tenant.getIssuer());
+                }
+            }
+            return new Snapshot(Map.copyOf(tenants), Map.copyOf(byIssuer));
+        }
+    }
+}
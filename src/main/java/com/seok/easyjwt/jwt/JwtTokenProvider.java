@@ -1,20 +1,39 @@
 package com.seok.easyjwt.jwt;
 
+import com.seok.easyjwt.audit.AsyncAuditLog;
+import com.seok.easyjwt.audit.AuditEvent;
+import com.seok.easyjwt.auth.JwtAuthentication;
+import com.seok.easyjwt.auth.JwtUserDetails;
+import com.seok.easyjwt.auth.LazyJwtUserDetails;
+import com.seok.easyjwt.auth.SpeculativeUserLookup;
+import com.seok.easyjwt.core.JwtIssuer;
+import com.seok.easyjwt.core.JwtVerifier;
+import com.seok.easyjwt.exception.EasyJwtException;
 import com.seok.easyjwt.exception.ExpiredTokenException;
 import com.seok.easyjwt.exception.InvalidTokenException;
-import io.jsonwebtoken.*;
+import com.seok.easyjwt.jfr.TokenIssueEvent;
+import com.seok.easyjwt.jfr.TokenVerificationEvent;
+import com.seok.easyjwt.jti.InMemoryJtiStore;
+import com.seok.easyjwt.jti.JtiStore;
+import com.seok.easyjwt.session.SessionInfo;
+import com.seok.easyjwt.session.SessionRegistry;
+import com.seok.easyjwt.user.JwtUser;
+import com.seok.easyjwt.version.TokenVersionSource;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Provides functionality for generating, validating, and parsing JWT tokens.
@@ -26,12 +45,56 @@ import java.util.Map;
  * <p>
  * The {@code JwtTokenProvider} relies on the {@link JwtProperties} for configuration,
  * including the secret key, token expiration times, and HTTP header settings.
+ * <p>
+ * With a {@link JwtTenantRegistry}, tokens can also be issued for and verified against individual tenants,
+ * each with its own key and expiration times.
+ * <p>
+ * Signing and verification are delegated to the framework-neutral {@link JwtIssuer} and {@link JwtVerifier},
+ * which can also be used on their own outside of the Servlet stack.
+ * <p>
+ * Issuing and verifying tokens emit {@link TokenIssueEvent} and {@link TokenVerificationEvent} JFR events
+ * while a recording has them enabled. With an {@link AsyncAuditLog}, issued, renewed and consumed tokens as well as
+ * rejected ones are also recorded in the audit trail.
+ * <p>
+ * With a {@link SessionRegistry}, every refresh token opens a session of its user, which
+ * {@link #verifyRefreshToken(String)} checks is still active.
  */
 public class JwtTokenProvider {
 
+    /**
+     * The claim holding the {@link TokenType} of a token.
+     */
+    public static final String TYPE_CLAIM = TokenType.CLAIM_NAME;
+
+    /**
+     * The claim holding the purpose of a {@link TokenType#PURPOSE} token.
+     */
+    public static final String PURPOSE_CLAIM = "pur";
+
+    /**
+     * The claim holding the version of the user at issue time, see {@link TokenVersionSource}.
+     */
+    public static final String VERSION_CLAIM = "ver";
+
+    /**
+     * The claim holding the session id of a refresh token, see {@link SessionRegistry}.
+     */
+    public static final String SESSION_CLAIM = "sid";
+
+    // Claims written by generateToken itself, which must not be copied over when renewing a token
+    private static final Set<String> RESERVED_CLAIMS = Set.of(Claims.SUBJECT, Claims.ISSUER, Claims.ISSUED_AT, Claims.EXPIRATION,
+            TYPE_CLAIM, VERSION_CLAIM, SESSION_CLAIM);
+
     private final UserDetailsService userDetailsService;
     private final JwtProperties jwtProperties;
-    private final SecretKey secretKey;
+    private final JwtIssuer jwtIssuer;
+    private final JwtVerifier jwtVerifier;
+    private JwtTenantRegistry tenantRegistry;
+    private JtiStore jtiStore = new InMemoryJtiStore();
+    private AsyncAuditLog auditLog;
+    private SpeculativeUserLookup speculativeUserLookup;
+    private TokenVersionSource tokenVersionSource;
+    private SessionRegistry sessionRegistry;
 
     /**
      * Constructs a new {@code JwtTokenProvider} with the specified dependencies.
@@ -49,7 +112,90 @@ public class JwtTokenProvider {
         }
 
         // Generate a SecretKey using the HS256 algorithm
-        this.secretKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+        SecretKey secretKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.jwtIssuer = new JwtIssuer(secretKey);
+        this.jwtVerifier = new JwtVerifier(secretKey);
+    }
+
+    /**
+     * Sets the registry of tenants tokens can be issued for and verified against.
+     *
+     * @param tenantRegistry the tenant registry, or {@code null} to disable multi-tenancy
+     */
+    public void setTenantRegistry(JwtTenantRegistry tenantRegistry) {
+        this.tenantRegistry = tenantRegistry;
+    }
+
+    /**
+     * Sets the store tracking redeemed purpose tokens. Defaults to an {@link InMemoryJtiStore}.
+     *
+     * @param jtiStore the jti store
+     */
+    public void setJtiStore(JtiStore jtiStore) {
+        this.jtiStore = jtiStore;
+    }
+
+    /**
+     * Sets the audit log recording token operations.
+     *
+     * @param auditLog the audit log, or {@code null} to disable auditing
+     */
+    public void setAuditLog(AsyncAuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Sets the lookup used to load users while their token is still being verified.
+     * <p>
+     * Only used when the principal is loaded eagerly, see {@link JwtProperties#isLazyPrincipal()}.
+     *
+     * @param speculativeUserLookup the speculative lookup, or {@code null} to load users after verification
+     */
+    public void setSpeculativeUserLookup(SpeculativeUserLookup speculativeUserLookup) {
+        this.speculativeUserLookup = speculativeUserLookup;
+    }
+
+    /**
+     * Sets the source of user token versions.
+     * <p>
+     * Issued tokens then carry the current version of their subject in the {@link #VERSION_CLAIM}, and access tokens
+     * older than the current version are rejected by {@link #getAuthentication(String)}. Tokens without the claim
+     * count as version {@code 0}.
+     *
+     * @param tokenVersionSource the version source, or {@code null} to disable version checks
+     */
+    public void setTokenVersionSource(TokenVersionSource tokenVersionSource) {
+        this.tokenVersionSource = tokenVersionSource;
+    }
+
+    /**
+     * Sets the registry tracking the sessions opened by refresh tokens.
+     * <p>
+     * Refresh tokens then carry a session id in the {@link #SESSION_CLAIM}, and the oldest sessions of a user are
+     * evicted once they go over the registry limit.
+     *
+     * @param sessionRegistry the session registry, or {@code null} to issue refresh tokens without sessions
+     */
+    public void setSessionRegistry(SessionRegistry sessionRegistry) {
+        this.sessionRegistry = sessionRegistry;
+    }
+
+    /**
+     * Returns the issuer signing tokens with the default key.
+     *
+     * @return the default {@link JwtIssuer}
+     */
+    public JwtIssuer getJwtIssuer() {
+        return jwtIssuer;
+    }
+
+    /**
+     * Returns the verifier checking tokens signed with the default key.
+     *
+     * @return the default {@link JwtVerifier}
+     */
+    public JwtVerifier getJwtVerifier() {
+        return jwtVerifier;
     }
 
     /**
@@ -63,7 +209,24 @@ public class JwtTokenProvider {
      * @return the generated access token
      */
     public String generateAccessToken(String subject, Map<String, Object> claims) {
-        return generateToken(subject, jwtProperties.getAccessTokenExpiration(), TokenType.ACCESS, claims);
+        return generateToken(null, subject, jwtProperties.getAccessTokenExpiration(), TokenType.ACCESS, claims);
+    }
+
+    /**
+     * Generates a new access token for a tenant.
+     * <p>
+     * The token is signed with the tenant key, carries the tenant issuer and expires after the tenant's
+     * access token expiration time.
+     *
+     * @param tenantId the id of the tenant
+     * @param subject  the subject (typically the username) for the token
+     * @param claims   additional claims to include in the token
+     * @return the generated access token
+     * @throws IllegalArgumentException if the tenant is unknown
+     */
+    public String generateAccessToken(String tenantId, String subject, Map<String, Object> claims) {
+        JwtTenant tenant = requireTenant(tenantId);
+        return generateToken(tenant, subject, tenant.getAccessTokenExpiration(), TokenType.ACCESS, claims);
     }
 
     /**
@@ -76,52 +239,342 @@ public class JwtTokenProvider {
      * @return the generated refresh token
      */
     public String generateRefreshToken(String subject, Map<String, Object> claims) {
-        return generateToken(subject, jwtProperties.getRefreshTokenExpiration(), TokenType.REFRESH, claims);
+        Long expiration = jwtProperties.getRefreshTokenExpiration();
+        return generateToken(null, subject, expiration, TokenType.REFRESH, withSession(subject, expiration, claims));
+    }
+
+    /**
+     * Generates a new refresh token for a tenant.
+     *
+     * @param tenantId the id of the tenant
+     * @param subject  the subject (typically the username) for the token
+     * @param claims   additional claims to include in the token
+     * @return the generated refresh token
+     * @throws IllegalArgumentException if the tenant is unknown
+     */
+    public String generateRefreshToken(String tenantId, String subject, Map<String, Object> claims) {
+        JwtTenant tenant = requireTenant(tenantId);
+        Long expiration = tenant.getRefreshTokenExpiration();
+        return generateToken(tenant, subject, expiration, TokenType.REFRESH, withSession(subject, expiration, claims));
+    }
+
+    /**
+     * Verifies a refresh token and returns its claims.
+     * <p>
+     * Tokens of a tenant are dispatched by their issuer. With a {@link SessionRegistry}, the session of the token
+     * must still be active, and with a {@link TokenVersionSource}, the token must not be older than the current
+     * version of its user.
+     *
+     * @param token the refresh token
+     * @return the verified claims
+     * @throws ExpiredTokenException if the token has expired
+     * @throws InvalidTokenException if the token is invalid, not a refresh token or has been revoked
+     */
+    public Claims verifyRefreshToken(String token) {
+        Claims claims = getClaims(token, null);
+        if (!TokenType.REFRESH.name().equals(claims.get(TYPE_CLAIM))) {
+            throw rejected(claims, "Invalid token type");
+        }
+        if (tokenVersionSource != null && tokenVersion(claims) < tokenVersionSource.getVersion(claims.getSubject())) {
+            throw rejected(claims, "Token has been revoked");
+        }
+        if (sessionRegistry != null) {
+            String sessionId = claims.get(SESSION_CLAIM, String.class);
+            if (sessionId == null || !sessionRegistry.isActive(claims.getSubject(), sessionId)) {
+                throw rejected(claims, "Session has been revoked");
+            }
+        }
+        return claims;
+    }
+
+    /**
+     * Generates a new single-use token for the given purpose.
+     * <p>
+     * The token carries the purpose and a unique id ({@code jti}), and expires after the duration
+     * configured for the purpose in {@link JwtProperties#getPurposes()}.
+     *
+     * @param subject the subject (typically the username) for the token
+     * @param purpose the purpose of the token, e.g. "email-verification"
+     * @param claims  additional claims to include in the token
+     * @return the generated purpose token
+     * @throws IllegalArgumentException if the purpose is not configured
+     */
+    public String generatePurposeToken(String subject, String purpose, Map<String, Object> claims) {
+        JwtProperties.Purpose settings = jwtProperties.getPurposes().get(purpose);
+        if (settings == null) {
+            throw new IllegalArgumentException("Unknown token purpose: " + purpose);
+        }
+
+        Map<String, Object> purposeClaims = claims != null ? new HashMap<>(claims) : new HashMap<>();
+        purposeClaims.put(PURPOSE_CLAIM, purpose);
+        purposeClaims.put(Claims.ID, UUID.randomUUID().toString());
+        return generateToken(null, subject, settings.getExpiration(), TokenType.PURPOSE, purposeClaims);
+    }
+
+    /**
+     * Verifies and redeems a single-use purpose token.
+     * <p>
+     * A token can only be consumed once; the id of every redeemed token is recorded in the {@link JtiStore}
+     * until the token expires.
+     *
+     * @param token   the purpose token
+     * @param purpose the purpose the token must have been issued for
+     * @return the claims of the redeemed token
+     * @throws ExpiredTokenException if the token has expired
+     * @throws InvalidTokenException if the token is invalid, of another purpose or has already been used
+     */
+    public Claims consume(String token, String purpose) {
+        Claims claims = getClaims(token, null);
+
+        if (!TokenType.PURPOSE.name().equals(claims.get(TYPE_CLAIM)) || !purpose.equals(claims.get(PURPOSE_CLAIM))) {
+            throw rejected(claims, "Invalid token purpose");
+        }
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            throw rejected(claims, "Invalid JWT token");
+        }
+        if (!jtiStore.markUsed(claims.getId(), claims.getExpiration().getTime())) {
+            throw rejected(claims, "Token has already been used");
+        }
+        audit(AuditEvent.Type.TOKEN_CONSUMED, claims.getSubject(), TokenType.PURPOSE.name(), purpose);
+        return claims;
+    }
+
+    /**
+     * Generates a new access token for the subject of an already verified token.
+     * <p>
+     * The custom claims of the original token are carried over, while the issue and expiration
+     * times are reset as for {@link #generateAccessToken(String, Map)}. Tokens of a tenant are
+     * renewed for the same tenant.
+     *
+     * @param claims the verified claims of the token being renewed
+     * @return the renewed access token
+     */
+    public String renewAccessToken(Claims claims) {
+        Map<String, Object> customClaims = new HashMap<>(claims);
+        customClaims.keySet().removeAll(RESERVED_CLAIMS);
+
+        JwtTenant tenant = tenantRegistry != null ? tenantRegistry.findByIssuer(claims.getIssuer()) : null;
+        Long expiration = tenant != null ? tenant.getAccessTokenExpiration() : jwtProperties.getAccessTokenExpiration();
+        return generateToken(tenant, claims.getSubject(), expiration, TokenType.ACCESS, customClaims, AuditEvent.Type.TOKEN_RENEWED);
+    }
+
+    /**
+     * Generates a new refresh token replacing an already verified one.
+     * <p>
+     * With a {@link SessionRegistry}, the session of the old token is swapped for a new one in a single step,
+     * so the old token is rejected from then on and refreshing doesn't count as another login towards the limit.
+     * The custom claims of the original token are carried over, and tokens of a tenant are rotated for the same tenant.
+     *
+     * @param claims the claims of the refresh token being rotated, as returned by {@link #verifyRefreshToken(String)}
+     * @return the new refresh token
+     * @throws InvalidTokenException if the claims are not of a refresh token, or its session has been revoked,
+     *                               evicted or already rotated
+     */
+    public String rotateRefreshToken(Claims claims) {
+        if (!TokenType.REFRESH.name().equals(claims.get(TYPE_CLAIM))) {
+            throw rejected(claims, "Invalid token type");
+        }
+        Map<String, Object> customClaims = new HashMap<>(claims);
+        customClaims.keySet().removeAll(RESERVED_CLAIMS);
+
+        JwtTenant tenant = tenantRegistry != null ? tenantRegistry.findByIssuer(claims.getIssuer()) : null;
+        Long expiration = tenant != null ? tenant.getRefreshTokenExpiration() : jwtProperties.getRefreshTokenExpiration();
+        if (sessionRegistry != null) {
+            String sessionId = claims.get(SESSION_CLAIM, String.class);
+            SessionInfo session = sessionId != null
+                    ? sessionRegistry.rotate(claims.getSubject(), sessionId, System.currentTimeMillis() + expiration * 1000L)
+                    : null;
+            if (session == null) {
+                throw rejected(claims, "Session has been revoked");
+            }
+            customClaims.put(SESSION_CLAIM, session.getSessionId());
+        }
+        return generateToken(tenant, claims.getSubject(), expiration, TokenType.REFRESH, customClaims);
+    }
+
+    /**
+     * Opens a session for a new refresh token, if sessions are tracked, and adds its id to the claims.
+     */
+    private Map<String, Object> withSession(String subject, Long expirationSeconds, Map<String, Object> claims) {
+        if (sessionRegistry == null) {
+            return claims;
+        }
+        SessionInfo session = sessionRegistry.register(subject, System.currentTimeMillis() + expirationSeconds * 1000L);
+        Map<String, Object> sessionClaims = claims != null ? new HashMap<>(claims) : new HashMap<>();
+        sessionClaims.put(SESSION_CLAIM, session.getSessionId());
+        return sessionClaims;
     }
 
     /**
      * Generates a JWT token with the specified parameters.
      *
+     * @param tenant             the tenant to issue the token for, or {@code null} for the default key
      * @param subject            the subject (typically the username) for the token
      * @param expirationSeconds  the expiration time (in seconds) for the token
      * @param type               the type of token (e.g., ACCESS, REFRESH)
      * @param claims             additional claims to include in the token
      * @return the generated JWT token
      */
-    private String generateToken(String subject, Long expirationSeconds, TokenType type, Map<String, Object> claims) {
-        long nowMillis = System.currentTimeMillis();
-        Date now = new Date(nowMillis);
-        Date exp = new Date(nowMillis + expirationSeconds * 1000L);
+    private String generateToken(JwtTenant tenant, String subject, Long expirationSeconds, TokenType type, Map<String, Object> claims) {
+        return generateToken(tenant, subject, expirationSeconds, type, claims, AuditEvent.Type.TOKEN_ISSUED);
+    }
 
-        JwtBuilder builder = Jwts.builder().subject(subject).issuedAt(now).expiration(exp).claim("typ", type.name()).signWith(secretKey);
+    /**
+     * Generates a JWT token, recording it in the audit trail as the given kind of event.
+     *
+     * @param auditType the audit event of the token, e.g. {@link AuditEvent.Type#TOKEN_RENEWED} for renewals
+     */
+    private String generateToken(JwtTenant tenant, String subject, Long expirationSeconds, TokenType type,
+                                 Map<String, Object> claims, AuditEvent.Type auditType) {
+        JwtIssuer issuer = tenant != null ? tenant.getJwtIssuer() : jwtIssuer;
+        if (tokenVersionSource != null) {
+            claims = claims != null ? new HashMap<>(claims) : new HashMap<>();
+            claims.put(VERSION_CLAIM, tokenVersionSource.getVersion(subject));
+        }
 
-        if (claims != null && !claims.isEmpty()) {
-            builder.claims(claims);
+        TokenIssueEvent event = new TokenIssueEvent();
+        String token;
+        if (!event.isEnabled()) {
+            token = issuer.issue(subject, expirationSeconds, type, claims);
+        } else {
+            event.begin();
+            token = issuer.issue(subject, expirationSeconds, type, claims);
+            if (event.shouldCommit()) {
+                event.setTokenType(type.name());
+                event.setSubject(subject);
+                event.commit();
+            }
         }
 
-        return builder.compact();
+        audit(auditType, subject, type.name(), null);
+        return token;
     }
 
     /**
      * Extracts authentication details from a token.
      * <p>
      * This method validates the token and retrieves the subject to load
-     * the corresponding {@link UserDetails}.
+     * the corresponding {@link UserDetails}. The result is a {@link JwtAuthentication} carrying the verified
+     * {@link Claims}, which are also kept as the authentication details, so they don't need to be parsed again.
+     * <p>
+     * With {@link JwtProperties#isLazyPrincipal()} enabled, the principal is a {@link LazyJwtUserDetails}
+     * and the user is only loaded once its authorities or {@link JwtUser} are accessed. Otherwise, with a
+     * {@link SpeculativeUserLookup}, the user is loaded while the token is being verified.
      *
      * @param token the JWT token to parse
      * @return an {@link Authentication} object for the user
-     * @throws InvalidTokenException if the token is invalid
+     * @throws InvalidTokenException if the token is invalid or has been revoked by a version bump
      * @throws ExpiredTokenException if the token has expired
      */
     public Authentication getAuthentication(String token) {
-        Claims claims = getClaims(token);
+        return getAuthentication(token, null);
+    }
 
-        if (!TokenType.ACCESS.name().equals(claims.get("typ"))) {
-            throw new InvalidTokenException("Invalid token type");
+    /**
+     * Extracts authentication details from a token of the given tenant.
+     * <p>
+     * When {@code tenantId} is {@code null}, the tenant is chosen by the token's {@code iss} claim,
+     * falling back to the default key for tokens without a known issuer.
+     *
+     * @param token    the JWT token to parse
+     * @param tenantId the id of the tenant the token must belong to, or {@code null}
+     * @return an {@link Authentication} object for the user
+     * @throws InvalidTokenException if the token is invalid, has been revoked by a version bump or the tenant is unknown
+     * @throws ExpiredTokenException if the token has expired
+     */
+    public Authentication getAuthentication(String token, String tenantId) {
+        boolean lazy = jwtProperties.isLazyPrincipal();
+        String unverifiedSubject = null;
+        CompletableFuture<UserDetails> lookup = null;
+        if (!lazy && speculativeUserLookup != null) {
+            unverifiedSubject = UnverifiedTokens.peekStringClaim(token, Claims.SUBJECT);
+            lookup = speculativeUserLookup.start(unverifiedSubject);
         }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
-        return new UsernamePasswordAuthenticationToken(userDetails, token, userDetails.getAuthorities());
+        // If the token is rejected, a pending lookup finishes in the background and its result is dropped.
+        // It is not cancelled, so it keeps holding its permit until the lookup actually ends.
+        Claims claims = verifyAccessToken(token, tenantId);
+
+        UserDetails userDetails;
+        if (lazy) {
+            String subject = claims.getSubject();
+            userDetails = new LazyJwtUserDetails(subject, () -> loadJwtUser(subject));
+        } else {
+            userDetails = lookup != null && unverifiedSubject.equals(claims.getSubject())
+                    ? speculativeUserLookup.join(lookup)
+                    : userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        JwtAuthentication authentication = new JwtAuthentication(userDetails, token, claims);
+        authentication.setDetails(claims);
+        return authentication;
+    }
+
+    /**
+     * Verifies an access token and returns its claims, without loading its user.
+     * <p>
+     * The token is accepted under the same rules as {@link #getAuthentication(String)}: it must be an access token
+     * and, with a {@link TokenVersionSource}, must not be older than the current version of its user.
+     *
+     * @param token the access token
+     * @return the verified claims
+     * @throws ExpiredTokenException if the token has expired
+     * @throws InvalidTokenException if the token is invalid, not an access token or has been revoked
+     */
+    public Claims verifyAccessToken(String token) {
+        return verifyAccessToken(token, null);
+    }
+
+    /**
+     * Verifies an access token of the given tenant and returns its claims, without loading its user.
+     *
+     * @param token    the access token
+     * @param tenantId the id of the tenant the token must belong to, or {@code null} to dispatch by issuer
+     * @return the verified claims
+     * @throws ExpiredTokenException if the token has expired
+     * @throws InvalidTokenException if the token is invalid, not an access token, has been revoked or the tenant is unknown
+     */
+    public Claims verifyAccessToken(String token, String tenantId) {
+        Claims claims = getClaims(token, tenantId);
+        String rejection = accessTokenRejection(claims);
+        if (rejection != null) {
+            throw rejected(claims, rejection);
+        }
+        return claims;
+    }
+
+    /**
+     * Checks the acceptance rules of access tokens on verified claims.
+     *
+     * @return the reason the token is rejected, or {@code null} if it is accepted
+     */
+    private String accessTokenRejection(Claims claims) {
+        if (!TokenType.ACCESS.name().equals(claims.get(TYPE_CLAIM))) {
+            return "Invalid token type";
+        }
+        if (tokenVersionSource != null && tokenVersion(claims) < tokenVersionSource.getVersion(claims.getSubject())) {
+            return "Token has been revoked";
+        }
+        return null;
+    }
+
+    private static long tokenVersion(Claims claims) {
+        Object version = claims.get(VERSION_CLAIM);
+        return version instanceof Number ? ((Number) version).longValue() : 0L;
+    }
+
+    /**
+     * Loads the {@link JwtUser} for a lazy principal through the configured {@link UserDetailsService}.
+     *
+     * @param username the username to load
+     * @return the loaded {@link JwtUser}
+     * @throws IllegalStateException if the {@link UserDetailsService} does not return {@link JwtUserDetails}
+     */
+    private JwtUser loadJwtUser(String username) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (!(userDetails instanceof JwtUserDetails)) {
+            throw new IllegalStateException("Lazy principal requires a UserDetailsService returning JwtUserDetails");
+        }
+        return ((JwtUserDetails) userDetails).getJwtUser();
     }
 
     /**
@@ -143,20 +596,109 @@ public class JwtTokenProvider {
 
     /**
      * Parses and validates a JWT token, returning its claims.
+     * <p>
+     * Tokens of a tenant are dispatched by their issuer. Unlike {@link #getAuthentication(String)} and
+     * {@link #verifyAccessToken(String)}, the token type is not checked and no user is loaded.
      *
      * @param token the JWT token to parse
      * @return the claims contained in the token
      * @throws ExpiredTokenException if the token has expired
      * @throws InvalidTokenException if the token is invalid
      */
-    private Claims getClaims(String token) {
+    public Claims getClaims(String token) {
+        return getClaims(token, null);
+    }
+
+    /**
+     * Parses and validates a JWT token, returning its claims.
+     *
+     * @param token    the JWT token to parse
+     * @param tenantId the id of the tenant the token must belong to, or {@code null} to dispatch by issuer
+     * @return the claims contained in the token
+     * @throws ExpiredTokenException if the token has expired
+     * @throws InvalidTokenException if the token is invalid
+     */
+    private Claims getClaims(String token, String tenantId) {
+        TokenVerificationEvent event = new TokenVerificationEvent();
+        if (!event.isEnabled()) {
+            return verify(token, tenantId);
+        }
+
+        event.begin();
+        String outcome = "INVALID";
+        Claims claims = null;
         try {
-            return Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token).getPayload();
-        } catch (ExpiredJwtException e) {
-            throw new ExpiredTokenException("Token has expired", e);
-        } catch (JwtException | IllegalArgumentException e) {
-            throw new InvalidTokenException("Invalid JWT token", e);
+            claims = verify(token, tenantId);
+            outcome = "VALID";
+            return claims;
+        } catch (ExpiredTokenException e) {
+            outcome = "EXPIRED";
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.setOutcome(outcome);
+                if (claims != null) {
+                    event.setTokenType(claims.get(TYPE_CLAIM, String.class));
+                    event.setSubject(claims.getSubject());
+                }
+                event.commit();
+            }
         }
     }
 
-}
\ No newline at end of file
+    private Claims verify(String token, String tenantId) {
+        try {
+            return selectVerifier(token, tenantId).verify(token);
+        } catch (EasyJwtException e) {
+            // The subject of an unverified token can't be trusted, so it is not recorded
+            audit(AuditEvent.Type.VERIFICATION_FAILED, null, null, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Records the rejection of a verified token and returns the exception to throw.
+     */
+    private InvalidTokenException rejected(Claims claims, String reason) {
+        audit(AuditEvent.Type.VERIFICATION_FAILED, claims.getSubject(), claims.get(TYPE_CLAIM, String.class), reason);
+        return new InvalidTokenException(reason);
+    }
+
+    private void audit(AuditEvent.Type type, String subject, String tokenType, String detail) {
+        if (auditLog != null) {
+            auditLog.publish(new AuditEvent(type, subject, tokenType, detail));
+        }
+    }
+
+    /**
+     * Selects the verifier checking a token, based on the requested tenant or the token issuer.
+     */
+    private JwtVerifier selectVerifier(String token, String tenantId) {
+        if (tenantRegistry == null || tenantRegistry.isEmpty()) {
+            if (tenantId != null) {
+                throw new InvalidTokenException("Unknown tenant");
+            }
+            return jwtVerifier;
+        }
+
+        JwtTenant tenant;
+        if (tenantId != null) {
+            tenant = tenantRegistry.findById(tenantId);
+            if (tenant == null) {
+                throw new InvalidTokenException("Unknown tenant");
+            }
+        } else {
+            // The issuer only routes the token, the tenant verifier still checks signature and issuer
+            tenant = tenantRegistry.findByIssuer(UnverifiedTokens.peekStringClaim(token, Claims.ISSUER));
+        }
+        return tenant != null ? tenant.getJwtVerifier() : jwtVerifier;
+    }
+
+    private JwtTenant requireTenant(String tenantId) {
+        JwtTenant tenant = tenantRegistry != null ? tenantRegistry.findById(tenantId) : null;
+        if (tenant == null) {
+            throw new IllegalArgumentException("Unknown tenant: " + tenantId);
+        }
+        return tenant;
+    }
+}
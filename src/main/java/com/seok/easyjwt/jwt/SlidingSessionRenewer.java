@@ -0,0 +1,97 @@
+package com.seok.easyjwt.jwt;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides when an access token should be renewed proactively and mints the replacement.
+ * <p>
+ * A token is renewed when it is within {@link JwtProperties.SlidingSession#getWindow()} seconds of its
+ * expiration. Renewals are rate limited per subject: once a subject got a renewed token, further requests
+ * for the same subject within {@link JwtProperties.SlidingSession#getMinInterval()} seconds are not renewed
+ * again. This keeps concurrent requests carrying the same expiring token from each minting a new one.
+ * <p>
+ * Usage:
+ * - Enable with {@code easy-jwt.sliding-session.enabled=true}; {@link JwtFilter} then writes the renewed
+ *   token to the configured response header and/or cookie.
+ */
+public class SlidingSessionRenewer {
+
+    // Above this many tracked subjects, stale entries are pruned on the next renewal
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final JwtProperties.SlidingSession settings;
+    private final long windowMillis;
+    private final long minIntervalMillis;
+    private final ConcurrentHashMap<String, Long> lastRenewals = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@code SlidingSessionRenewer}.
+     *
+     * @param jwtTokenProvider the provider used to mint renewed access tokens
+     * @param settings         the sliding session settings
+     */
+    public SlidingSessionRenewer(JwtTokenProvider jwtTokenProvider, JwtProperties.SlidingSession settings) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.settings = settings;
+        this.windowMillis = settings.getWindow() * 1000L;
+        this.minIntervalMillis = settings.getMinInterval() * 1000L;
+    }
+
+    /**
+     * Renews the token described by the given claims if it is close to expiring.
+     *
+     * @param claims the verified claims of the current access token
+     * @return the renewed access token, or {@code null} if no renewal is due
+     */
+    public String renewIfExpiring(Claims claims) {
+        Date expiration = claims.getExpiration();
+        String subject = claims.getSubject();
+        if (expiration == null || subject == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (expiration.getTime() - now > windowMillis || !tryAcquire(subject, now)) {
+            return null;
+        }
+        return jwtTokenProvider.renewAccessToken(claims);
+    }
+
+    /**
+     * Returns the response header the renewed token is written to.
+     *
+     * @return the header name, or {@code null} if no header should be written
+     */
+    public String getHeaderName() {
+        return settings.getHeaderName();
+    }
+
+    /**
+     * Returns the cookie the renewed token is written to.
+     *
+     * @return the cookie name, or {@code null} if no cookie should be written
+     */
+    public String getCookieName() {
+        return settings.getCookieName();
+    }
+
+    private boolean tryAcquire(String subject, long now) {
+        boolean[] acquired = new boolean[1];
+        lastRenewals.compute(subject, (key, last) -> {
+            if (last != null && now - last < minIntervalMillis) {
+                return last;
+            }
+            acquired[0] = true;
+            return now;
+        });
+
+        if (lastRenewals.size() > PRUNE_THRESHOLD) {
+            lastRenewals.values().removeIf(last -> now - last >= minIntervalMillis);
+        }
+        return acquired[0];
+    }
+}
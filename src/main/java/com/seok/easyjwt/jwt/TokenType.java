@@ -6,6 +6,7 @@ package com.seok.easyjwt.jwt;
  * This is used to distinguish between different types of tokens, such as:
  * - {@link #ACCESS}: Tokens used for granting access to protected resources.
  * - {@link #REFRESH}: Tokens used to obtain new access tokens after the current one expires.
+ * - {@link #PURPOSE}: Single-use tokens scoped to a purpose, such as email verification or password reset.
  */
 public enum TokenType {
     /**
@@ -20,5 +21,18 @@ public enum TokenType {
      * <p>
      * Refresh tokens are used to obtain new access tokens without requiring re-authentication.
      */
-    REFRESH
+    REFRESH,
+
+    /**
+     * Represents a single-use purpose token.
+     * <p>
+     * Purpose tokens carry their purpose in the {@code pur} claim and a unique {@code jti}, and can only be
+     * redeemed once through {@link JwtTokenProvider#consume(String, String)}.
+     */
+    PURPOSE;
+
+    /**
+     * The name of the claim holding the token type.
+     */
+    public static final String CLAIM_NAME = "typ";
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.seok.easyjwt.jwt;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads single claims from a token payload <b>without verifying the signature</b>.
+ * <p>
+ * This is only meant for routing decisions made before verification, such as picking the tenant whose
+ * key verifies the token. Values read here must never be trusted on their own.
+ */
+final class UnverifiedTokens {
+
+    private UnverifiedTokens() {
+    }
+
+    /**
+     * Reads a string claim from the payload of a compact JWS.
+     * <p>
+     * The payload is streamed and only scanned up to the requested claim, other values are skipped.
+     *
+     * @param token     the compact token
+     * @param claimName the name of the claim to read
+     * @return the claim value, or {@code null} if the claim is missing, not a string or the token is malformed
+     */
+    static String peekStringClaim(String token, String claimName) {
+        int start = token.indexOf('.');
+        int end = start < 0 ? -1 : token.indexOf('.', start + 1);
+        if (end < 0) {
+            return null;
+        }
+
+        try {
+            // Decoded straight from the token, without a substring of the payload segment
+            byte[] payload = new byte[Base64Url.decodedLength(token, start + 1, end)];
+            int length = Base64Url.decode(token, start + 1, end, payload, 0);
+            try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(payload, 0, length), StandardCharsets.UTF_8))) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (claimName.equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                        return reader.nextString();
+                    }
+                    reader.skipValue();
+                }
+            }
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            // Malformed tokens are rejected by the actual verification
+        }
+        return null;
+    }
+}
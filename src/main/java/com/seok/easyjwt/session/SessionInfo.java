@@ -0,0 +1,55 @@
+package com.seok.easyjwt.session;
+
+import java.util.Objects;
+
+/**
+ * A session of a user, i.e. an outstanding refresh token registered in a {@link SessionRegistry}.
+ */
+public final class SessionInfo {
+
+    private final String sessionId;
+    private final String subject;
+    private final long createdAt;
+    private final long expiresAt;
+
+    /**
+     * Constructs a new {@code SessionInfo}.
+     *
+     * @param sessionId the session id, carried by the refresh token in the {@code sid} claim
+     * @param subject   the subject of the session
+     * @param createdAt the creation time, in milliseconds since the epoch
+     * @param expiresAt the expiration time of the refresh token, in milliseconds since the epoch
+     */
+    public SessionInfo(String sessionId, String subject, long createdAt, long expiresAt) {
+        this.sessionId = Objects.requireNonNull(sessionId, "sessionId");
+        this.subject = Objects.requireNonNull(subject, "subject");
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionInfo{sessionId=" + sessionId + ", subject=" + subject + ", createdAt=" + createdAt
+                + ", expiresAt=" + expiresAt + "}";
+    }
+}
@@ -0,0 +1,301 @@
+package com.seok.easyjwt.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tracks the active sessions of each user and caps how many a user can have.
+ * <p>
+ * Every refresh token issued while a registry is configured opens a session, and the token carries the session id
+ * in its {@code sid} claim. When a user goes over the limit, their oldest sessions are evicted, and refresh tokens
+ * of evicted or revoked sessions are rejected by
+ * {@link com.seok.easyjwt.jwt.JwtTokenProvider#verifyRefreshToken(String)}.
+ * <p>
+ * Users are spread over lock stripes, so logins of different users rarely contend: the number of stripes is a
+ * power of two of at least four per core. Sessions of a user are kept in creation order, which makes oldest-first
+ * eviction constant time. Expired sessions are dropped whenever their user is touched.
+ * <p>
+ * With a {@link SessionStore}, sessions are loaded from the store on creation and every change is written to it.
+ */
+public class SessionRegistry {
+
+    private final int maxSessionsPerUser;
+    private final SessionStore sessionStore;
+    private final Stripe[] stripes;
+    private final int mask;
+
+    /**
+     * Constructs a new in-memory {@code SessionRegistry}.
+     *
+     * @param maxSessionsPerUser the maximum number of active sessions per user
+     */
+    public SessionRegistry(int maxSessionsPerUser) {
+        this(maxSessionsPerUser, null);
+    }
+
+    /**
+     * Constructs a new {@code SessionRegistry} backed by a store.
+     *
+     * @param maxSessionsPerUser the maximum number of active sessions per user
+     * @param sessionStore       the store persisting sessions, or {@code null} to keep them in memory only
+     * @throws IllegalArgumentException if the limit isn't positive
+     */
+    public SessionRegistry(int maxSessionsPerUser, SessionStore sessionStore) {
+        if (maxSessionsPerUser < 1) {
+            throw new IllegalArgumentException("Maximum sessions per user must be positive");
+        }
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.sessionStore = sessionStore;
+
+        int count = Integer.highestOneBit(Math.max(16, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = count - 1;
+
+        if (sessionStore != null) {
+            load(sessionStore.loadAll());
+        }
+    }
+
+    /**
+     * Opens a session for a user, evicting their oldest sessions if they go over the limit.
+     *
+     * @param subject   the subject of the session
+     * @param expiresAt the expiration time of the refresh token, in milliseconds since the epoch
+     * @return the new session
+     */
+    public SessionInfo register(String subject, long expiresAt) {
+        long now = System.currentTimeMillis();
+        SessionInfo session = new SessionInfo(newSessionId(), subject, now, expiresAt);
+
+        Stripe stripe = stripeOf(subject);
+        synchronized (stripe) {
+            LinkedHashMap<String, SessionInfo> sessions = stripe.users.computeIfAbsent(subject, s -> new LinkedHashMap<>());
+            purgeExpired(sessions, now);
+            sessions.put(session.getSessionId(), session);
+            if (sessionStore != null) {
+                sessionStore.save(session);
+            }
+
+            Iterator<SessionInfo> oldest = sessions.values().iterator();
+            while (sessions.size() > maxSessionsPerUser) {
+                SessionInfo evicted = oldest.next();
+                oldest.remove();
+                if (sessionStore != null) {
+                    sessionStore.delete(evicted);
+                }
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Replaces an active session with a new one, e.g. when its refresh token is rotated.
+     * <p>
+     * The swap happens under the lock of the user, so it never evicts another session and only one of
+     * concurrent rotations of the same session succeeds. The new session counts as the user's newest.
+     *
+     * @param subject   the subject of the session
+     * @param sessionId the id of the session being replaced
+     * @param expiresAt the expiration time of the new refresh token, in milliseconds since the epoch
+     * @return the new session, or {@code null} if the session isn't active anymore
+     */
+    public SessionInfo rotate(String subject, String sessionId, long expiresAt) {
+        long now = System.currentTimeMillis();
+        Stripe stripe = stripeOf(subject);
+        synchronized (stripe) {
+            LinkedHashMap<String, SessionInfo> sessions = stripe.users.get(subject);
+            SessionInfo current = sessions != null ? sessions.get(sessionId) : null;
+            if (current == null || current.isExpired(now)) {
+                return null;
+            }
+
+            SessionInfo session = new SessionInfo(newSessionId(), subject, now, expiresAt);
+            sessions.remove(sessionId);
+            sessions.put(session.getSessionId(), session);
+            if (sessionStore != null) {
+                sessionStore.delete(current);
+                sessionStore.save(session);
+            }
+            return session;
+        }
+    }
+
+    /**
+     * Indicates whether a session is active, i.e. neither revoked, evicted nor expired.
+     *
+     * @param subject   the subject of the session
+     * @param sessionId the session id
+     * @return {@code true} if the session is active
+     */
+    public boolean isActive(String subject, String sessionId) {
+        Stripe stripe = stripeOf(subject);
+        synchronized (stripe) {
+            LinkedHashMap<String, SessionInfo> sessions = stripe.users.get(subject);
+            SessionInfo session = sessions != null ? sessions.get(sessionId) : null;
+            return session != null && !session.isExpired(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Returns the active sessions of a user.
+     *
+     * @param subject the subject
+     * @return the active sessions, oldest first
+     */
+    public List<SessionInfo> getSessions(String subject) {
+        Stripe stripe = stripeOf(subject);
+        synchronized (stripe) {
+            LinkedHashMap<String, SessionInfo> sessions = stripe.users.get(subject);
+            if (sessions == null) {
+                return Collections.emptyList();
+            }
+            purgeExpired(sessions, System.currentTimeMillis());
+            if (sessions.isEmpty()) {
+                stripe.users.remove(subject);
+            }
+            return new ArrayList<>(sessions.values());
+        }
+    }
+
+    /**
+     * Revokes a session, e.g. on logout.
+     *
+     * @param subject   the subject of the session
+     * @param sessionId the session id
+     * @return {@code true} if the session was active
+     */
+    public boolean revoke(String subject, String sessionId) {
+        Stripe stripe = stripeOf(subject);
+        synchronized (stripe) {
+            LinkedHashMap<String, SessionInfo> sessions = stripe.users.get(subject);
+            SessionInfo session = sessions != null ? sessions.remove(sessionId) : null;
+            if (session == null) {
+                return false;
+            }
+            if (sessions.isEmpty()) {
+                stripe.users.remove(subject);
+            }
+            if (sessionStore != null) {
+                sessionStore.delete(session);
+            }
+            return !session.isExpired(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Revokes all sessions of a user, e.g. on logout from every device.
+     *
+     * @param subject the subject
+     * @return the number of revoked active sessions
+     */
+    public int revokeAll(String subject) {
+        Stripe stripe = stripeOf(subject);
+        synchronized (stripe) {
+            LinkedHashMap<String, SessionInfo> sessions = stripe.users.remove(subject);
+            if (sessions == null) {
+                return 0;
+            }
+            long now = System.currentTimeMillis();
+            int revoked = 0;
+            for (SessionInfo session : sessions.values()) {
+                if (sessionStore != null) {
+                    sessionStore.delete(session);
+                }
+                if (!session.isExpired(now)) {
+                    revoked++;
+                }
+            }
+            return revoked;
+        }
+    }
+
+    /**
+     * Returns the number of users with sessions, including sessions that have expired since their user was last touched.
+     *
+     * @return the number of users
+     */
+    public int getUserCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.users.size();
+            }
+        }
+        return count;
+    }
+
+    private void load(List<SessionInfo> stored) {
+        long now = System.currentTimeMillis();
+        for (SessionInfo session : stored) {
+            if (session.isExpired(now)) {
+                continue;
+            }
+            Stripe stripe = stripeOf(session.getSubject());
+            synchronized (stripe) {
+                stripe.users.computeIfAbsent(session.getSubject(), s -> new LinkedHashMap<>())
+                        .put(session.getSessionId(), session);
+            }
+        }
+
+        // Stored sessions may come in any order and from a larger limit
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Map.Entry<String, LinkedHashMap<String, SessionInfo>> user : stripe.users.entrySet()) {
+                    List<SessionInfo> sessions = new ArrayList<>(user.getValue().values());
+                    sessions.sort((a, b) -> Long.compare(a.getCreatedAt(), b.getCreatedAt()));
+                    LinkedHashMap<String, SessionInfo> ordered = new LinkedHashMap<>();
+                    for (int i = 0; i < sessions.size(); i++) {
+                        if (i < sessions.size() - maxSessionsPerUser) {
+                            sessionStore.delete(sessions.get(i));
+                        } else {
+                            ordered.put(sessions.get(i).getSessionId(), sessions.get(i));
+                        }
+                    }
+                    user.setValue(ordered);
+                }
+            }
+        }
+    }
+
+    private void purgeExpired(LinkedHashMap<String, SessionInfo> sessions, long now) {
+        Iterator<SessionInfo> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            SessionInfo session = iterator.next();
+            if (session.isExpired(now)) {
+                iterator.remove();
+                if (sessionStore != null) {
+                    sessionStore.delete(session);
+                }
+            }
+        }
+    }
+
+    private Stripe stripeOf(String subject) {
+        int hash = subject.hashCode();
+        return stripes[(hash ^ hash >>> 16) & mask];
+    }
+
+    /**
+     * Creates a random session id. Session ids are carried inside signed tokens and can't be forged, so they are
+     * drawn from a thread-local generator rather than the shared, synchronized one behind {@link UUID#randomUUID()}.
+     */
+    private static String newSessionId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private static final class Stripe {
+
+        private final HashMap<String, LinkedHashMap<String, SessionInfo>> users = new HashMap<>();
+    }
+}
@@ -0,0 +1,37 @@
+package com.seok.easyjwt.session;
+
+import java.util.List;
+
+/**
+ * Persists the sessions of a {@link SessionRegistry}, so they survive restarts or are shared by several nodes.
+ * <p>
+ * The registry stays the source of truth for checks, which never reach the store. The store is written on every
+ * change while the affected user is locked, so writes to a remote store should be queued or batched rather than
+ * performed synchronously.
+ * <p>
+ * Usage:
+ * - Provide a bean of this type to persist sessions, e.g. in a database table keyed by session id.
+ */
+public interface SessionStore {
+
+    /**
+     * Records a new session.
+     *
+     * @param session the session
+     */
+    void save(SessionInfo session);
+
+    /**
+     * Deletes a session that was revoked, evicted or has expired.
+     *
+     * @param session the session
+     */
+    void delete(SessionInfo session);
+
+    /**
+     * Loads the stored sessions when the registry is created. Expired sessions are skipped.
+     *
+     * @return the stored sessions
+     */
+    List<SessionInfo> loadAll();
+}
@@ -0,0 +1,142 @@
+package com.seok.easyjwt.user;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link QueryJwtUserService} merging concurrent lookups into bulk queries.
+ * <p>
+ * Lookups arriving within a short window are collected into one batch and fetched with a single
+ * {@link QueryJwtUserService#executeAll(Collection)} call, turning many point queries into a few
+ * {@code IN (...)} queries under load. Lookups of the same username within a batch share one result.
+ * <p>
+ * No thread is added: the first caller of a batch waits for the window and then runs the bulk query for
+ * everyone, unless the batch fills up first, in which case the caller completing it runs the query right away.
+ * Callers therefore pay at most one window of extra latency.
+ */
+public class BatchingQueryJwtUserService implements QueryJwtUserService {
+
+    private final QueryJwtUserService delegate;
+    private final long windowNanos;
+    private final int maxKeys;
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    private Batch current;
+
+    /**
+     * Constructs a new {@code BatchingQueryJwtUserService}.
+     *
+     * @param delegate     the service running the bulk queries
+     * @param windowMillis how long (in milliseconds) lookups are collected before a batch is fetched
+     * @param maxKeys      the number of distinct usernames after which a batch is fetched right away
+     */
+    public BatchingQueryJwtUserService(QueryJwtUserService delegate, long windowMillis, int maxKeys) {
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.delegate = delegate;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public Optional<JwtUser> execute(String username) {
+        Batch batch;
+        CompletableFuture<Optional<JwtUser>> result;
+        boolean leader;
+        boolean full;
+        synchronized (lock) {
+            leader = current == null;
+            if (leader) {
+                current = new Batch();
+            }
+            batch = current;
+            result = batch.waiters.computeIfAbsent(username, key -> new CompletableFuture<>());
+            full = batch.waiters.size() >= maxKeys;
+            if (full) {
+                current = null;
+            }
+        }
+
+        if (full) {
+            dispatch(batch);
+        } else if (leader) {
+            awaitWindow(batch, result);
+        }
+        return join(result);
+    }
+
+    @Override
+    public Map<String, JwtUser> executeAll(Collection<String> usernames) {
+        return delegate.executeAll(usernames);
+    }
+
+    /**
+     * Waits for the window to pass, then closes and fetches the batch unless another caller filled it first.
+     */
+    private void awaitWindow(Batch batch, CompletableFuture<Optional<JwtUser>> result) {
+        try {
+            result.get(windowNanos, TimeUnit.NANOSECONDS);
+            return;
+        } catch (TimeoutException | ExecutionException e) {
+            // Window elapsed, or the batch was already fetched and failed
+        } catch (InterruptedException e) {
+            // Still fetch the batch, other callers are waiting on it
+            Thread.currentThread().interrupt();
+        }
+
+        boolean mine;
+        synchronized (lock) {
+            mine = current == batch;
+            if (mine) {
+                current = null;
+            }
+        }
+        if (mine) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(Batch batch) {
+        Map<String, JwtUser> users;
+        try {
+            users = delegate.executeAll(batch.waiters.keySet());
+        } catch (RuntimeException | Error e) {
+            for (CompletableFuture<Optional<JwtUser>> waiter : batch.waiters.values()) {
+                waiter.completeExceptionally(e);
+            }
+            throw e;
+        }
+        for (Map.Entry<String, CompletableFuture<Optional<JwtUser>>> waiter : batch.waiters.entrySet()) {
+            waiter.getValue().complete(Optional.ofNullable(users.get(waiter.getKey())));
+        }
+    }
+
+    private static Optional<JwtUser> join(CompletableFuture<Optional<JwtUser>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Lookups collected for one bulk query. The waiters are only modified under the lock while the batch is
+     * current, and only read once it has been closed.
+     */
+    private static final class Batch {
+
+        private final Map<String, CompletableFuture<Optional<JwtUser>>> waiters = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,320 @@
+package com.seok.easyjwt.user;
+
+import com.seok.easyjwt.auth.JwtUserDetails;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Binds the authenticated principal for the extent of a call, as an alternative to the {@link ThreadLocal}
+ * based {@link org.springframework.security.core.context.SecurityContextHolder}.
+ * <p>
+ * On runtimes providing {@code java.lang.ScopedValue} (and with preview features enabled where it is still
+ * a preview API), the principal is bound in a {@code ScopedValue}: subtasks forked with structured concurrency
+ * see it without any copying, and the binding can't leak past the call. Other runtimes fall back to a plain
+ * {@link ThreadLocal} that is restored after the call. {@link #isScopedValueSupported()} tells which one is in use.
+ * <p>
+ * Usage:
+ * - Enable {@code easy-jwt.scoped-principal} to have {@link com.seok.easyjwt.jwt.JwtFilter} bind the principal
+ *   for the rest of the filter chain; {@link CurrentUserService} reads it before the security context.
+ * - Use {@link #wrap(Callable)} or {@link #invokeAll(ExecutorService, Collection)} to carry the principal
+ *   into tasks running on other threads.
+ */
+public final class CurrentUserScope {
+
+    private static final Binding BINDING = Binding.create();
+
+    private CurrentUserScope() {
+    }
+
+    /**
+     * Indicates whether principals are bound in a {@code ScopedValue} rather than a {@link ThreadLocal}.
+     *
+     * @return {@code true} if {@code java.lang.ScopedValue} is available
+     */
+    public static boolean isScopedValueSupported() {
+        return BINDING instanceof ScopedValueBinding;
+    }
+
+    /**
+     * Returns the principal bound to the current call.
+     *
+     * @return the bound principal, or {@code null} if none is bound
+     */
+    public static JwtUserDetails currentPrincipal() {
+        return BINDING.get();
+    }
+
+    /**
+     * Calls an action with the principal bound for its duration.
+     *
+     * @param principal the principal to bind
+     * @param action    the action to call
+     * @param <V>       the result type
+     * @return the result of the action
+     * @throws Exception the exception thrown by the action
+     */
+    public static <V> V callWhere(JwtUserDetails principal, Callable<V> action) throws Exception {
+        return BINDING.callWhere(principal, action);
+    }
+
+    /**
+     * Returns a task that runs with the principal bound to the calling thread at the time of wrapping.
+     *
+     * @param task the task to wrap
+     * @return the wrapped task, or the task itself if no principal is bound
+     */
+    public static Runnable wrap(Runnable task) {
+        JwtUserDetails principal = currentPrincipal();
+        if (principal == null) {
+            return task;
+        }
+        return () -> {
+            try {
+                callWhere(principal, () -> {
+                    task.run();
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                // Unreachable, Runnable doesn't throw checked exceptions
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * Returns a task that runs with the principal bound to the calling thread at the time of wrapping.
+     *
+     * @param task the task to wrap
+     * @param <V>  the result type
+     * @return the wrapped task, or the task itself if no principal is bound
+     */
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        JwtUserDetails principal = currentPrincipal();
+        if (principal == null) {
+            return task;
+        }
+        return () -> callWhere(principal, task);
+    }
+
+    /**
+     * Runs tasks concurrently with the current principal bound, and waits for all of them.
+     * <p>
+     * The fan-out is structured and fails fast: as soon as any task fails, or if the caller is interrupted,
+     * the tasks that haven't started are skipped and the running ones are interrupted. This method then waits
+     * until every running task has actually returned before throwing, so no task outlives the call. A task
+     * ignoring interrupts therefore delays the failure until it ends.
+     *
+     * @param executor the executor running the tasks
+     * @param tasks    the tasks
+     * @param <V>      the result type
+     * @return the results, in the order of the tasks
+     * @throws ExecutionException   if a task failed, with the first failure as cause
+     * @throws InterruptedException if the caller was interrupted while waiting
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> List<V> invokeAll(ExecutorService executor, Collection<? extends Callable<V>> tasks)
+            throws ExecutionException, InterruptedException {
+        List<Callable<V>> pending = new ArrayList<>(tasks);
+        int size = pending.size();
+        // Per task: 0 not started, 1 running, 2 returned or skipped
+        AtomicIntegerArray states = new AtomicIntegerArray(size);
+        CountDownLatch settled = new CountDownLatch(size);
+        CompletionService<V> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<V>, Integer> indexes = new HashMap<>();
+        List<Future<V>> futures = new ArrayList<>(size);
+
+        boolean completed = false;
+        try {
+            for (int i = 0; i < size; i++) {
+                Future<V> future = completion.submit(settling(wrap(pending.get(i)), states, i, settled));
+                futures.add(future);
+                indexes.put(future, i);
+            }
+            Object[] results = new Object[size];
+            for (int n = 0; n < size; n++) {
+                // Tasks are taken in completion order, so a failure is seen as soon as it happens
+                Future<V> future = completion.take();
+                results[indexes.get(future)] = future.get();
+            }
+            completed = true;
+            return (List<V>) Arrays.asList(results);
+        } finally {
+            if (!completed) {
+                abort(futures, states, settled);
+            }
+        }
+    }
+
+    /**
+     * Wraps a task so that it only runs if it hasn't been skipped, and is counted as settled once it returns.
+     */
+    private static <V> Callable<V> settling(Callable<V> task, AtomicIntegerArray states, int index, CountDownLatch settled) {
+        return () -> {
+            if (!states.compareAndSet(index, 0, 1)) {
+                return null;
+            }
+            try {
+                return task.call();
+            } finally {
+                states.set(index, 2);
+                settled.countDown();
+            }
+        };
+    }
+
+    /**
+     * Skips the tasks that haven't started, interrupts the running ones and waits until they have returned.
+     */
+    private static <V> void abort(List<Future<V>> futures, AtomicIntegerArray states, CountDownLatch settled) {
+        for (int i = 0; i < states.length(); i++) {
+            if (states.compareAndSet(i, 0, 2)) {
+                settled.countDown();
+            }
+        }
+        for (Future<V> future : futures) {
+            future.cancel(true);
+        }
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                settled.await();
+                break;
+            } catch (InterruptedException e) {
+                // Returning now would leave tasks running past the call
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The storage behind the binding, picked once at class initialization.
+     */
+    private interface Binding {
+
+        JwtUserDetails get();
+
+        <V> V callWhere(JwtUserDetails principal, Callable<V> action) throws Exception;
+
+        static Binding create() {
+            try {
+                return new ScopedValueBinding();
+            } catch (Throwable e) {
+                // ScopedValue is missing (Java 17-20) or a preview API that isn't enabled
+                return new ThreadLocalBinding();
+            }
+        }
+    }
+
+    private static final class ThreadLocalBinding implements Binding {
+
+        private final ThreadLocal<JwtUserDetails> principal = new ThreadLocal<>();
+
+        @Override
+        public JwtUserDetails get() {
+            return principal.get();
+        }
+
+        @Override
+        public <V> V callWhere(JwtUserDetails value, Callable<V> action) throws Exception {
+            JwtUserDetails previous = principal.get();
+            principal.set(value);
+            try {
+                return action.call();
+            } finally {
+                if (previous != null) {
+                    principal.set(previous);
+                } else {
+                    principal.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Binds through {@code java.lang.ScopedValue}, accessed with method handles since the library targets Java 17.
+     * Only {@code Carrier.run(Runnable)} is used, as its signature is the same in every release providing it.
+     */
+    private static final class ScopedValueBinding implements Binding {
+
+        private final Object scopedValue;
+        private final MethodHandle where;
+        private final MethodHandle run;
+        private final MethodHandle isBound;
+        private final MethodHandle get;
+
+        ScopedValueBinding() throws Throwable {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> scopedValueClass = Class.forName("java.lang.ScopedValue");
+            Class<?> carrierClass = Class.forName("java.lang.ScopedValue$Carrier");
+
+            scopedValue = lookup.findStatic(scopedValueClass, "newInstance", MethodType.methodType(scopedValueClass)).invoke();
+            where = lookup.findStatic(scopedValueClass, "where", MethodType.methodType(carrierClass, scopedValueClass, Object.class));
+            run = lookup.findVirtual(carrierClass, "run", MethodType.methodType(void.class, Runnable.class));
+            isBound = lookup.findVirtual(scopedValueClass, "isBound", MethodType.methodType(boolean.class));
+            get = lookup.findVirtual(scopedValueClass, "get", MethodType.methodType(Object.class));
+
+            // Fails here rather than on the first request if preview features are disabled
+            run.invoke(where.invoke(scopedValue, (Object) null), (Runnable) () -> {
+            });
+        }
+
+        @Override
+        public JwtUserDetails get() {
+            try {
+                return (boolean) isBound.invoke(scopedValue) ? (JwtUserDetails) get.invoke(scopedValue) : null;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <V> V callWhere(JwtUserDetails principal, Callable<V> action) throws Exception {
+            Object[] result = new Object[1];
+            Exception[] failure = new Exception[1];
+            Runnable body = () -> {
+                try {
+                    result[0] = action.call();
+                } catch (Exception e) {
+                    failure[0] = e;
+                }
+            };
+
+            try {
+                run.invoke(where.invoke(scopedValue, principal), body);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            return (V) result[0];
+        }
+    }
+}
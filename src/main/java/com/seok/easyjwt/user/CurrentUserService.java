@@ -1,8 +1,13 @@
 package com.seok.easyjwt.user;
 
+import com.seok.easyjwt.auth.JwtAuthentication;
 import com.seok.easyjwt.auth.JwtUserDetails;
+import com.seok.easyjwt.jwt.JwtFilter;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 /**
  * Service for retrieving the current authenticated user from the security context.
@@ -10,17 +15,21 @@ import org.springframework.security.core.context.SecurityContextHolder;
  * This class provides a type-safe way to access the current user who is authenticated via JWT.
  * It assumes that the principal stored in the security context is an instance of {@link JwtUserDetails}.
  * <p>
+ * A principal bound in the {@link CurrentUserScope} takes precedence over the security context, so the current
+ * user is also available on threads the security context hasn't been copied to.
+ * <p>
  * Usage:
  * - Call {@link #getCurrentUser()} to retrieve the current authenticated user.
+ * - Call {@link #getCurrentClaims()} to read custom claims of the current token without parsing it again.
  *
  * @param <T> the type of {@link JwtUser} being returned
  */
 public class CurrentUserService<T extends JwtUser> {
 
     /**
-     * Retrieves the current authenticated user from the {@link SecurityContextHolder}.
+     * Retrieves the current authenticated user from the {@link CurrentUserScope} or the {@link SecurityContextHolder}.
      * <p>
-     * This method checks if the security context contains an authentication object
+     * This method first returns the principal bound in the {@link CurrentUserScope}, if any. Otherwise, it checks if the security context contains an authentication object
      * and if the principal is an instance of {@link JwtUserDetails}. If these conditions are met,
      * it returns the {@link JwtUser} associated with the current authentication.
      *
@@ -29,6 +38,11 @@ public class CurrentUserService<T extends JwtUser> {
      */
     @SuppressWarnings("unchecked")
     public T getCurrentUser() {
+        JwtUserDetails principal = CurrentUserScope.currentPrincipal();
+        if (principal != null) {
+            return (T) principal.getJwtUser();
+        }
+
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof JwtUserDetails) {
             return (T) ((JwtUserDetails) authentication.getPrincipal()).getJwtUser();
@@ -36,4 +50,32 @@ public class CurrentUserService<T extends JwtUser> {
             throw new IllegalStateException("Current user is not authenticated");
         }
     }
+
+    /**
+     * Retrieves the verified claims of the token the current request was authenticated with.
+     * <p>
+     * The claims are taken from the {@link JwtAuthentication} in the {@link SecurityContextHolder} or, if the security
+     * context isn't available on this thread, from the {@link JwtFilter#CLAIMS_ATTRIBUTE} request attribute.
+     *
+     * @return the verified claims of the current token
+     * @throws IllegalStateException if the request is not authenticated with a token
+     */
+    public Claims getCurrentClaims() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthentication && ((JwtAuthentication) authentication).getClaims() != null) {
+            return ((JwtAuthentication) authentication).getClaims();
+        }
+        if (authentication != null && authentication.getDetails() instanceof Claims) {
+            return (Claims) authentication.getDetails();
+        }
+
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        Object claims = requestAttributes != null
+                ? requestAttributes.getAttribute(JwtFilter.CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
+        if (claims instanceof Claims) {
+            return (Claims) claims;
+        }
+        throw new IllegalStateException("Current user is not authenticated");
+    }
 }
\ No newline at end of file
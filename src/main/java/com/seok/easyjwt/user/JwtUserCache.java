@@ -0,0 +1,300 @@
+package com.seok.easyjwt.user;
+
+import com.seok.easyjwt.auth.JwtUserDetails;
+import com.seok.easyjwt.auth.JwtUserDetailsCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches the users returned by a {@link QueryJwtUserService}, optionally across restarts.
+ * <p>
+ * Users are cached for a time to live. When the cache is full, the least used half of the entries is dropped.
+ * Users that don't exist are not cached, so newly created users can log in right away.
+ * <p>
+ * With a snapshot file, the most used entries are written to the file on {@link #close()} and read back
+ * by the next instance as a prefetch list: a background thread reloads those users through
+ * {@link QueryJwtUserService#executeAll(java.util.Collection)} in chunks, so a freshly deployed node warms up
+ * with a few bulk queries instead of a burst of point queries. Only users returned by the service are ever
+ * served; until its chunk is loaded, a user is looked up as on any cache miss.
+ * <p>
+ * Snapshot layout: a 12-byte header (magic, version, entry count) followed by entries of
+ * {@code [int length][record]}, each record encoded by {@link JwtUserDetailsCodec}. No Java serialization is
+ * involved, so the file can't make the application instantiate arbitrary classes. The file is read through
+ * a memory mapping, and malformed entries are skipped. The snapshot holds user data, so it must be kept in
+ * a location only the application can access.
+ */
+public class JwtUserCache implements AutoCloseable {
+
+    private static final int MAGIC = 0x454A5543; // "EJUC"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 12;
+    private static final int PREFETCH_CHUNK_SIZE = 100;
+
+    private final QueryJwtUserService queryJwtUserService;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Path snapshotPath;
+    private final int snapshotSize;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor prefetcher;
+
+    /**
+     * Constructs a new {@code JwtUserCache} without snapshot.
+     *
+     * @param queryJwtUserService the service loading users on cache misses
+     * @param ttl                 how long users are cached
+     * @param maxSize             the maximum number of cached users
+     */
+    public JwtUserCache(QueryJwtUserService queryJwtUserService, Duration ttl, int maxSize) {
+        this(queryJwtUserService, ttl, maxSize, null, 0);
+    }
+
+    /**
+     * Constructs a new {@code JwtUserCache}, warmed from the snapshot file if it exists.
+     *
+     * @param queryJwtUserService the service loading users on cache misses
+     * @param ttl                 how long users are cached
+     * @param maxSize             the maximum number of cached users
+     * @param snapshotPath        the snapshot file, or {@code null} to disable snapshots
+     * @param snapshotSize        the number of most used entries written to the snapshot
+     */
+    public JwtUserCache(QueryJwtUserService queryJwtUserService, Duration ttl, int maxSize, Path snapshotPath, int snapshotSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("User cache size must be positive");
+        }
+        this.queryJwtUserService = queryJwtUserService;
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.snapshotPath = snapshotPath;
+        this.snapshotSize = snapshotSize;
+
+        // A single thread, so prefetching never competes with requests for more than one connection
+        this.prefetcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), runnable -> {
+            Thread thread = new Thread(runnable, "easy-jwt-user-cache-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            List<String> usernames = readSnapshot(snapshotPath);
+            if (!usernames.isEmpty()) {
+                prefetcher.execute(() -> prefetch(usernames));
+            }
+        }
+    }
+
+    /**
+     * Returns a user, loading it through the {@link QueryJwtUserService} if it isn't cached.
+     *
+     * @param username the username
+     * @return the user, or empty if no user exists with that username
+     */
+    public Optional<JwtUser> get(String username) {
+        Entry entry = entries.get(username);
+        if (entry != null && !entry.isExpired(ttlNanos)) {
+            entry.hits.incrementAndGet();
+            return Optional.of(entry.user);
+        }
+
+        Optional<JwtUser> user = queryJwtUserService.execute(username);
+        if (user.isPresent()) {
+            put(username, new Entry(user.get()));
+        } else {
+            entries.remove(username);
+        }
+        return user;
+    }
+
+    /**
+     * Removes a user from the cache, e.g. after it has been changed.
+     *
+     * @param username the username
+     */
+    public void invalidate(String username) {
+        entries.remove(username);
+    }
+
+    /**
+     * Returns the number of cached users.
+     *
+     * @return the number of cached users
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the most used entries to a snapshot file.
+     * <p>
+     * The file is written next to the target and moved in place, so a crash never leaves a truncated snapshot.
+     *
+     * @param path the snapshot file
+     * @throws UncheckedIOException if the snapshot can't be written
+     */
+    public void saveSnapshot(Path path) {
+        List<Map.Entry<String, Entry>> hottest = new ArrayList<>(entries.entrySet());
+        hottest.sort((a, b) -> Integer.compare(b.getValue().hits.get(), a.getValue().hits.get()));
+
+        List<byte[]> records = new ArrayList<>();
+        long size = HEADER_SIZE;
+        for (Map.Entry<String, Entry> entry : hottest) {
+            if (records.size() >= snapshotSize) {
+                break;
+            }
+            byte[] record = encode(entry.getValue().user);
+            if (record != null) {
+                records.add(record);
+                size += Integer.BYTES + record.length;
+            }
+        }
+
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(records.size());
+                for (byte[] record : records) {
+                    buffer.putInt(record.length).put(record);
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write user cache snapshot " + path, e);
+        }
+    }
+
+    /**
+     * Writes the snapshot, if configured, and stops the prefetch thread.
+     */
+    @Override
+    public void close() {
+        prefetcher.shutdownNow();
+        if (snapshotPath != null) {
+            saveSnapshot(snapshotPath);
+        }
+    }
+
+    private void put(String username, Entry entry) {
+        entries.put(username, entry);
+        if (entries.size() > maxSize) {
+            evictColdest();
+        }
+    }
+
+    /**
+     * Drops the least used half of the entries, so eviction runs rarely instead of on every insert.
+     */
+    private synchronized void evictColdest() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        List<Map.Entry<String, Entry>> coldest = new ArrayList<>(entries.entrySet());
+        coldest.sort((a, b) -> Integer.compare(a.getValue().hits.get(), b.getValue().hits.get()));
+        for (int i = 0; i < coldest.size() - maxSize / 2; i++) {
+            entries.remove(coldest.get(i).getKey(), coldest.get(i).getValue());
+        }
+    }
+
+    private void prefetch(List<String> usernames) {
+        for (int from = 0; from < usernames.size() && !Thread.currentThread().isInterrupted(); from += PREFETCH_CHUNK_SIZE) {
+            List<String> chunk = usernames.subList(from, Math.min(from + PREFETCH_CHUNK_SIZE, usernames.size()));
+            Map<String, JwtUser> users;
+            try {
+                users = queryJwtUserService.executeAll(chunk);
+            } catch (RuntimeException e) {
+                // These users are loaded on their first access instead
+                continue;
+            }
+            for (Map.Entry<String, JwtUser> user : users.entrySet()) {
+                if (entries.size() >= maxSize) {
+                    return;
+                }
+                // A user loaded by a request in the meantime is just as fresh
+                entries.putIfAbsent(user.getKey(), new Entry(user.getValue()));
+            }
+        }
+    }
+
+    private List<String> readSnapshot(Path path) {
+        List<String> usernames = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return usernames;
+            }
+
+            int count = buffer.getInt();
+            for (int i = 0; i < count && usernames.size() < maxSize && buffer.remaining() >= Integer.BYTES; i++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                buffer.get(record);
+
+                try {
+                    usernames.add(JwtUserDetailsCodec.decode(record).getUsername());
+                } catch (IllegalArgumentException e) {
+                    // Corrupt record, the user is loaded on its first access instead
+                }
+            }
+        } catch (IOException e) {
+            // A missing or unreadable snapshot only means a cold start
+        }
+        return usernames;
+    }
+
+    private static byte[] encode(JwtUser user) {
+        if (user.getUsername() == null || user.getAuthorities() == null) {
+            return null;
+        }
+        try {
+            return JwtUserDetailsCodec.encode(new JwtUserDetails(user));
+        } catch (UncheckedIOException e) {
+            // Strings too long for the UTF format are simply not part of the snapshot
+            return null;
+        }
+    }
+
+    private static final class Entry {
+
+        private final JwtUser user;
+        private final long loadedAt = System.nanoTime();
+        private final AtomicInteger hits = new AtomicInteger();
+
+        Entry(JwtUser user) {
+            this.user = user;
+        }
+
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAt > ttlNanos;
+        }
+    }
+}
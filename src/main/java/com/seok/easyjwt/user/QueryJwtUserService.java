@@ -2,6 +2,9 @@ package com.seok.easyjwt.user;
 
 import com.seok.easyjwt.auth.JwtUserDetailsService;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -27,4 +30,22 @@ public interface QueryJwtUserService {
      * @return an {@link Optional} containing the {@link JwtUser}, or empty if no user is found
      */
     Optional<JwtUser> execute(String username);
+
+    /**
+     * Executes a query to fetch several {@link JwtUser}s at once.
+     * <p>
+     * Used by {@link BatchingQueryJwtUserService} to merge concurrent lookups. The default implementation
+     * calls {@link #execute(String)} for each username; override it with a single bulk query
+     * (e.g. {@code WHERE username IN (...)}) to benefit from batching.
+     *
+     * @param usernames the usernames of the users to retrieve
+     * @return the users found, keyed by username; usernames without a user are absent
+     */
+    default Map<String, JwtUser> executeAll(Collection<String> usernames) {
+        Map<String, JwtUser> users = new HashMap<>();
+        for (String username : usernames) {
+            execute(username).ifPresent(user -> users.put(username, user));
+        }
+        return users;
+    }
 }
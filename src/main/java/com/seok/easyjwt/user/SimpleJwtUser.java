@@ -0,0 +1,193 @@
+package com.seok.easyjwt.user;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link JwtUser} made of a username and authority names only.
+ * <p>
+ * Useful as a principal built straight from token claims, without loading the user, and as a compact
+ * representation for session replication and distributed caches. Its serialized form is versioned and
+ * only contains the username and the authority strings, instead of class descriptors and authority objects.
+ * Application users can get the same compact form by implementing {@link Externalizable} with
+ * {@link #writeAuthorities(ObjectOutput, Collection)} and {@link #readAuthorities(ObjectInput)}.
+ * <p>
+ * Usage:
+ * - {@code SimpleJwtUser.of("alice", List.of("ROLE_USER"))}
+ * - {@code SimpleJwtUser.fromClaims(claims, "roles")} for tokens carrying their authorities
+ */
+public final class SimpleJwtUser implements JwtUser, Externalizable {
+
+    private static final long serialVersionUID = 1L;
+    private static final byte VERSION = 1;
+
+    private String username;
+    private List<GrantedAuthority> authorities;
+
+    /**
+     * Constructs an empty {@code SimpleJwtUser}. Only meant for deserialization.
+     */
+    public SimpleJwtUser() {
+        this.authorities = Collections.emptyList();
+    }
+
+    private SimpleJwtUser(String username, List<GrantedAuthority> authorities) {
+        this.username = username;
+        this.authorities = authorities;
+    }
+
+    /**
+     * Creates a user from a username and authority names.
+     *
+     * @param username    the username
+     * @param authorities the authority names, e.g. "ROLE_USER"
+     * @return the user
+     */
+    public static SimpleJwtUser of(String username, Collection<String> authorities) {
+        List<GrantedAuthority> granted = new ArrayList<>(authorities.size());
+        for (String authority : authorities) {
+            granted.add(new SimpleGrantedAuthority(authority));
+        }
+        return new SimpleJwtUser(Objects.requireNonNull(username, "username"), Collections.unmodifiableList(granted));
+    }
+
+    /**
+     * Creates a compact copy of any {@link JwtUser}, keeping its username and authority names.
+     *
+     * @param user the user to copy
+     * @return the copy, or the user itself if it is already a {@code SimpleJwtUser}
+     */
+    public static SimpleJwtUser copyOf(JwtUser user) {
+        if (user instanceof SimpleJwtUser) {
+            return (SimpleJwtUser) user;
+        }
+        List<String> authorities = new ArrayList<>();
+        for (GrantedAuthority authority : user.getAuthorities()) {
+            authorities.add(authority.getAuthority());
+        }
+        return of(user.getUsername(), authorities);
+    }
+
+    /**
+     * Creates a user from verified token claims: the subject becomes the username, and the authorities are read
+     * from a claim holding a list of names or a single space- or comma-separated string.
+     *
+     * @param claims          the verified claims
+     * @param authoritiesClaim the name of the claim holding the authorities
+     * @return the user
+     */
+    public static SimpleJwtUser fromClaims(Claims claims, String authoritiesClaim) {
+        Object value = claims.get(authoritiesClaim);
+        List<String> authorities = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object authority : (Collection<?>) value) {
+                authorities.add(String.valueOf(authority));
+            }
+        } else if (value instanceof String) {
+            for (String authority : ((String) value).split("[\\s,]+")) {
+                if (!authority.isEmpty()) {
+                    authorities.add(authority);
+                }
+            }
+        }
+        return of(claims.getSubject(), authorities);
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * Writes the version, the username and the authority names.
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(VERSION);
+        out.writeUTF(username);
+        writeAuthorities(out, authorities);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new InvalidObjectException("Unsupported SimpleJwtUser version: " + version);
+        }
+        String name = in.readUTF();
+        this.authorities = readAuthorities(in);
+        this.username = name;
+    }
+
+    /**
+     * Writes authorities as a count followed by their names, for {@link Externalizable} users.
+     *
+     * @param out         the stream to write to
+     * @param authorities the authorities to write
+     * @throws IOException if the authorities can't be written
+     */
+    public static void writeAuthorities(ObjectOutput out, Collection<? extends GrantedAuthority> authorities) throws IOException {
+        out.writeInt(authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            out.writeUTF(authority.getAuthority());
+        }
+    }
+
+    /**
+     * Reads authorities written by {@link #writeAuthorities(ObjectOutput, Collection)}.
+     *
+     * @param in the stream to read from
+     * @return the authorities, as an unmodifiable list of {@link SimpleGrantedAuthority}
+     * @throws IOException if the authorities can't be read
+     */
+    public static List<GrantedAuthority> readAuthorities(ObjectInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new InvalidObjectException("Invalid authority count: " + count);
+        }
+        List<GrantedAuthority> granted = new ArrayList<>(Math.min(count, 64));
+        for (int i = 0; i < count; i++) {
+            granted.add(new SimpleGrantedAuthority(in.readUTF()));
+        }
+        return Collections.unmodifiableList(granted);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SimpleJwtUser)) {
+            return false;
+        }
+        SimpleJwtUser that = (SimpleJwtUser) o;
+        return username.equals(that.username) && authorities.equals(that.authorities);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(username, authorities);
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleJwtUser{username=" + username + ", authorities=" + authorities + "}";
+    }
+}
@@ -0,0 +1,174 @@
+package com.seok.easyjwt.version;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@link TokenVersionSource} answering from an in-memory map.
+ * <p>
+ * Without a loader, the map is the source of truth: versions start at {@code 0} and only change through
+ * {@link #bump(String)} and {@link #apply(String, long)}. The map then holds one entry per bumped user and
+ * is lost on restart, which makes the tokens revoked by a bump valid again; use a loader to keep bumps.
+ * <p>
+ * With a loader (e.g. reading a version column), versions are cached for the given time to live and reloaded
+ * afterwards, so changes made elsewhere are picked up within the TTL even if no bump is pushed. Expired entries
+ * are purged at most once per TTL, so the map only holds the users checked recently.
+ * <p>
+ * Versions only move forward: a stale value never replaces a newer one. Local bumps are passed to the
+ * registered {@link Listener}s, which can forward them to other nodes (e.g. over Redis pub/sub) where they
+ * are applied with {@link #apply(String, long)}.
+ */
+public class InMemoryTokenVersionSource implements TokenVersionSource {
+
+    /**
+     * Gets notified of versions bumped on this node.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called after the version of a user has been bumped.
+         *
+         * @param username the username
+         * @param version  the new version
+         */
+        void versionBumped(String username, long version);
+    }
+
+    private final ToLongFunction<String> loader;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<String, Entry> versions = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong nextPurgeAt = new AtomicLong(System.nanoTime());
+
+    /**
+     * Constructs a new {@code InMemoryTokenVersionSource} holding the versions on its own.
+     */
+    public InMemoryTokenVersionSource() {
+        this(null, null);
+    }
+
+    /**
+     * Constructs a new {@code InMemoryTokenVersionSource} caching versions read by a loader.
+     *
+     * @param loader the function reading the version of a user, or {@code null} to hold versions in memory only
+     * @param ttl    how long loaded versions are cached, or {@code null} to cache them until the next bump,
+     *               keeping an entry for every user ever checked
+     */
+    public InMemoryTokenVersionSource(ToLongFunction<String> loader, Duration ttl) {
+        this.loader = loader;
+        this.ttlNanos = loader != null && ttl != null ? ttl.toNanos() : Long.MAX_VALUE;
+    }
+
+    @Override
+    public long getVersion(String username) {
+        Entry entry = versions.get(username);
+        if (entry != null && !entry.isExpired(ttlNanos)) {
+            return entry.version;
+        }
+        if (loader == null) {
+            return 0L;
+        }
+        return store(username, loader.applyAsLong(username));
+    }
+
+    /**
+     * Increments the version of a user, invalidating all the tokens issued to the user so far,
+     * and notifies the listeners.
+     *
+     * @param username the username
+     * @return the new version
+     */
+    public long bump(String username) {
+        // Loaded outside of compute(), which must not block on a remote call
+        long known = getVersion(username);
+        Entry entry = versions.compute(username, (key, current) ->
+                new Entry(Math.max(known, current != null ? current.version : 0L) + 1));
+        for (Listener listener : listeners) {
+            listener.versionBumped(username, entry.version);
+        }
+        return entry.version;
+    }
+
+    /**
+     * Applies a version pushed from another node. Older versions than the known one are ignored
+     * and listeners are not notified.
+     *
+     * @param username the username
+     * @param version  the version
+     */
+    public void apply(String username, long version) {
+        store(username, version);
+    }
+
+    /**
+     * Registers a listener for versions bumped on this node.
+     *
+     * @param listener the listener
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Forgets the cached version of a user, so it is reloaded on the next check.
+     *
+     * @param username the username
+     */
+    public void evict(String username) {
+        versions.remove(username);
+    }
+
+    public int getCachedCount() {
+        return versions.size();
+    }
+
+    private long store(String username, long version) {
+        purgeExpired();
+        return versions.merge(username, new Entry(version),
+                (current, candidate) -> candidate.version >= current.version ? candidate : current.refreshed()).version;
+    }
+
+    private void purgeExpired() {
+        if (ttlNanos == Long.MAX_VALUE) {
+            return;
+        }
+        long now = System.nanoTime();
+        long purgeAt = nextPurgeAt.get();
+        // A single caller per TTL walks the map, the others skip
+        if (now - purgeAt < 0 || !nextPurgeAt.compareAndSet(purgeAt, now + ttlNanos)) {
+            return;
+        }
+        versions.values().removeIf(entry -> entry.isExpired(ttlNanos));
+    }
+
+    /**
+     * A cached version. The version is kept as a primitive so a check doesn't unbox.
+     */
+    private static final class Entry {
+
+        private final long version;
+        private final long loadedAt;
+
+        Entry(long version) {
+            this(version, System.nanoTime());
+        }
+
+        private Entry(long version, long loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean isExpired(long ttlNanos) {
+            return ttlNanos != Long.MAX_VALUE && System.nanoTime() - loadedAt > ttlNanos;
+        }
+
+        Entry refreshed() {
+            return new Entry(version);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.seok.easyjwt.version;
+
+/**
+ * Supplies the current token version of each user.
+ * <p>
+ * Tokens carry the version of their user at issue time in the {@code ver} claim and are rejected once the
+ * user's version has moved past it. Bumping a version therefore invalidates every outstanding token of the
+ * user at once, e.g. for logout-everywhere or after a role change, without a revocation list.
+ * <p>
+ * {@link #getVersion(String)} is called on every authenticated request, so implementations should answer
+ * from memory, as {@link InMemoryTokenVersionSource} does.
+ * <p>
+ * Usage:
+ * - Provide a bean of this type to keep versions in your own store.
+ */
+public interface TokenVersionSource {
+
+    /**
+     * Returns the current token version of a user.
+     *
+     * @param username the username
+     * @return the current version; users without a version have version {@code 0}
+     */
+    long getVersion(String username);
+}
@@ -0,0 +1,33 @@
+package com.seok.easyjwt.web;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a controller method parameter to the verified claims of the request token, resolved by a
+ * {@link CurrentClaimsArgumentResolver}.
+ * <p>
+ * Without a {@link #value()}, the parameter receives the whole {@link io.jsonwebtoken.Claims}. With a claim name,
+ * it receives that claim converted to the parameter type, or {@code null} if the token doesn't carry it.
+ * Primitive parameters, such as {@code @CurrentClaims("age") int age}, require the claim to be present;
+ * use a wrapper type such as {@code Integer} for optional claims.
+ * <p>
+ * Usage:
+ * - {@code public Order create(@CurrentClaims Claims claims)}
+ * - {@code public Order create(@CurrentClaims("tenant") String tenant)}
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentClaims {
+
+    /**
+     * The name of the claim to bind, or empty to bind all claims.
+     *
+     * @return the claim name
+     */
+    String value() default "";
+}
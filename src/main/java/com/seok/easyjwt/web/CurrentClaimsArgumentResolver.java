@@ -0,0 +1,70 @@
+package com.seok.easyjwt.web;
+
+import com.seok.easyjwt.jwt.JwtFilter;
+import com.seok.easyjwt.user.CurrentUserService;
+import io.jsonwebtoken.Claims;
+import org.springframework.core.MethodParameter;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves controller method parameters annotated with {@link CurrentClaims} from the claims verified by
+ * {@link JwtFilter}, so controllers never parse the token again.
+ * <p>
+ * The claims are read from the {@link JwtFilter#CLAIMS_ATTRIBUTE} request attribute, falling back to
+ * {@link CurrentUserService#getCurrentClaims()} for requests authenticated by other means.
+ * <p>
+ * Usage:
+ * - Register the resolver, e.g. from {@code WebMvcConfigurer#addArgumentResolvers(List)}:
+ *   {@code resolvers.add(currentClaimsArgumentResolver)}.
+ */
+public class CurrentClaimsArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final CurrentUserService<?> currentUserService;
+
+    /**
+     * Constructs a new {@code CurrentClaimsArgumentResolver}.
+     *
+     * @param currentUserService the service providing the claims outside of the request attribute
+     */
+    public CurrentClaimsArgumentResolver(CurrentUserService<?> currentUserService) {
+        this.currentUserService = currentUserService;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentClaims.class);
+    }
+
+    /**
+     * Resolves the claims, or a single claim, of the request token.
+     * <p>
+     * Primitive parameters receive the claim through its wrapper type, so they can only bind claims the token
+     * always carries; use the wrapper type for optional claims.
+     *
+     * @throws IllegalStateException if the request is not authenticated with a token, or a claim bound to a
+     *                               primitive parameter is missing
+     */
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object attribute = webRequest.getAttribute(JwtFilter.CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        Claims claims = attribute instanceof Claims ? (Claims) attribute : currentUserService.getCurrentClaims();
+
+        String name = parameter.getParameterAnnotation(CurrentClaims.class).value();
+        if (name.isEmpty()) {
+            return claims;
+        }
+        Class<?> type = parameter.getNestedParameterType();
+        Object value = claims.get(name, ClassUtils.resolvePrimitiveIfNecessary(type));
+        if (value == null && type.isPrimitive()) {
+            throw new IllegalStateException("Missing claim '" + name + "' for primitive parameter "
+                    + parameter.getParameterName() + " of type " + type.getName());
+        }
+        return value;
+    }
+}
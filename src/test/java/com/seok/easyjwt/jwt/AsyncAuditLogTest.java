@@ -0,0 +1,247 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.audit.AsyncAuditLog;
+import com.seok.easyjwt.audit.AuditEvent;
+import com.seok.easyjwt.audit.AuditSink;
+import com.seok.easyjwt.audit.RollingFileAuditSink;
+import com.seok.easyjwt.exception.InvalidTokenException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class AsyncAuditLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testEventsWrittenInOrder() throws Exception {
+        CollectingSink sink = new CollectingSink(0);
+        AsyncAuditLog auditLog = new AsyncAuditLog(sink, 4096, 64, AsyncAuditLog.OverflowPolicy.DROP);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(auditLog.publish(event("user" + i)));
+        }
+        auditLog.close();
+
+        assertEquals(1000, sink.events.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("user" + i, sink.events.get(i).getSubject());
+        }
+        assertTrue(sink.largestBatch <= 64);
+        assertFalse(auditLog.publish(event("late")));
+    }
+
+    @Test
+    public void testPublish_DoesNotWaitForBlockedSink() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CollectingSink sink = new CollectingSink(0) {
+            @Override
+            public void write(List<AuditEvent> batch) throws IOException {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(batch);
+            }
+        };
+        AsyncAuditLog auditLog = new AsyncAuditLog(sink, 8, 4, AsyncAuditLog.OverflowPolicy.DROP);
+
+        // The writer takes the first event and then blocks in the sink, leaving the buffer empty
+        assertTrue(auditLog.publish(event("first")));
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(auditLog.publish(event("user" + i)));
+        }
+        assertEquals(0, auditLog.getDroppedCount());
+        assertFalse(auditLog.publish(event("overflow")));
+        assertEquals(1, auditLog.getDroppedCount());
+
+        release.countDown();
+        auditLog.close();
+        assertEquals(9, sink.events.size());
+    }
+
+    @Test
+    public void testPublish_RacingCloseIsWrittenOrCounted() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            CollectingSink sink = new CollectingSink(0);
+            AsyncAuditLog auditLog = new AsyncAuditLog(sink, 1024, 64, AsyncAuditLog.OverflowPolicy.DROP);
+            CountDownLatch started = new CountDownLatch(1);
+            int[] accepted = new int[1];
+            Thread publisher = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < 500; i++) {
+                    if (auditLog.publish(event("user" + i))) {
+                        accepted[0]++;
+                    }
+                }
+            });
+            publisher.start();
+            started.await();
+            auditLog.close();
+            publisher.join();
+
+            // Every accepted event reaches the sink, and no event goes unaccounted
+            assertTrue(sink.events.size() >= accepted[0]);
+            assertEquals(500, accepted[0] + auditLog.getDroppedCount());
+        }
+    }
+
+    @Test
+    public void testDropPolicy_CountsOverflow() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CollectingSink sink = new CollectingSink(0) {
+            @Override
+            public void write(List<AuditEvent> batch) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(batch);
+            }
+        };
+        AsyncAuditLog auditLog = new AsyncAuditLog(sink, 8, 4, AsyncAuditLog.OverflowPolicy.DROP);
+
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (auditLog.publish(event("user" + i))) {
+                accepted++;
+            }
+        }
+        release.countDown();
+        auditLog.close();
+
+        assertTrue(auditLog.getDroppedCount() > 0);
+        assertEquals(100, accepted + auditLog.getDroppedCount());
+        assertEquals(accepted, sink.events.size());
+    }
+
+    @Test
+    public void testBlockPolicy_LosesNothing() throws Exception {
+        CollectingSink sink = new CollectingSink(1);
+        AsyncAuditLog auditLog = new AsyncAuditLog(sink, 8, 4, AsyncAuditLog.OverflowPolicy.BLOCK);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    assertTrue(auditLog.publish(event("user")));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        auditLog.close();
+
+        assertEquals(400, sink.events.size());
+        assertEquals(0, auditLog.getDroppedCount());
+    }
+
+    @Test
+    public void testRollingFileSink_RollsBySize() throws Exception {
+        Path file = tempDir.resolve("audit/audit.log");
+        AsyncAuditLog auditLog = new AsyncAuditLog(new RollingFileAuditSink(file, 500, 2), 1024, 16, AsyncAuditLog.OverflowPolicy.BLOCK);
+        for (int i = 0; i < 100; i++) {
+            auditLog.publish(new AuditEvent(AuditEvent.Type.TOKEN_ISSUED, "user" + i, "ACCESS", null));
+        }
+        auditLog.close();
+
+        assertTrue(Files.exists(file));
+        assertTrue(Files.exists(tempDir.resolve("audit/audit.log.1")));
+        assertTrue(Files.exists(tempDir.resolve("audit/audit.log.2")));
+        assertFalse(Files.exists(tempDir.resolve("audit/audit.log.3")));
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertTrue(lines.get(lines.size() - 1).contains("\"sub\":\"user99\""));
+        assertTrue(lines.get(0).contains("\"type\":\"TOKEN_ISSUED\""));
+    }
+
+    @Test
+    public void testTokenProvider_AuditsOperations() throws Exception {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("VerySecretKey12345678901234567890");
+        JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(mock(UserDetailsService.class), jwtProperties);
+        CollectingSink sink = new CollectingSink(0);
+        AsyncAuditLog auditLog = new AsyncAuditLog(sink, 64, 16, AsyncAuditLog.OverflowPolicy.BLOCK);
+        jwtTokenProvider.setAuditLog(auditLog);
+
+        String refreshToken = jwtTokenProvider.generateRefreshToken("testUser", Map.of());
+        assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.getAuthentication(refreshToken));
+        assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.getClaims("not-a-token"));
+        auditLog.close();
+
+        List<AuditEvent.Type> types = sink.events.stream().map(AuditEvent::getType).collect(Collectors.toList());
+        assertEquals(List.of(AuditEvent.Type.TOKEN_ISSUED, AuditEvent.Type.VERIFICATION_FAILED, AuditEvent.Type.VERIFICATION_FAILED), types);
+        assertEquals("testUser", sink.events.get(1).getSubject());
+        assertEquals("Invalid token type", sink.events.get(1).getDetail());
+        assertNull(sink.events.get(2).getSubject());
+    }
+
+    @Test
+    public void testTokenProvider_AuditsRenewalOnce() throws Exception {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("VerySecretKey12345678901234567890");
+        JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(mock(UserDetailsService.class), jwtProperties);
+        String accessToken = jwtTokenProvider.generateAccessToken("testUser", Map.of());
+        CollectingSink sink = new CollectingSink(0);
+        AsyncAuditLog auditLog = new AsyncAuditLog(sink, 64, 16, AsyncAuditLog.OverflowPolicy.BLOCK);
+        jwtTokenProvider.setAuditLog(auditLog);
+
+        jwtTokenProvider.renewAccessToken(jwtTokenProvider.getClaims(accessToken));
+        auditLog.close();
+
+        assertEquals(1, sink.events.size());
+        assertEquals(AuditEvent.Type.TOKEN_RENEWED, sink.events.get(0).getType());
+        assertEquals("testUser", sink.events.get(0).getSubject());
+    }
+
+    private static AuditEvent event(String subject) {
+        return new AuditEvent(AuditEvent.Type.TOKEN_ISSUED, subject, "ACCESS", null);
+    }
+
+    private static class CollectingSink implements AuditSink {
+
+        private final long latencyMillis;
+        final List<AuditEvent> events = new ArrayList<>();
+        int largestBatch;
+
+        CollectingSink(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public void write(List<AuditEvent> batch) throws IOException {
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.addAll(batch);
+            largestBatch = Math.max(largestBatch, batch.size());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.seok.easyjwt.jwt;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Base64UrlTest {
+
+    private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_=+/. \u00e9\u4e00";
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void testDecode_MatchesJdkOnValidInput() {
+        for (int i = 0; i < 5_000; i++) {
+            byte[] bytes = new byte[random.nextInt(i < 4_000 ? 64 : 4_096)];
+            random.nextBytes(bytes);
+
+            assertArrayEquals(bytes, Base64Url.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes)));
+            assertArrayEquals(bytes, Base64Url.decode(Base64.getUrlEncoder().encodeToString(bytes)));
+        }
+    }
+
+    @Test
+    public void testDecode_MatchesJdkOnArbitraryInput() {
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                // Mostly alphabet characters, so valid and almost valid inputs are both well covered
+                int bound = random.nextInt(8) == 0 ? CHARACTERS.length() : 64;
+                input.append(CHARACTERS.charAt(random.nextInt(bound)));
+            }
+            if (random.nextBoolean()) {
+                input.append(random.nextBoolean() ? "=" : "==");
+            }
+
+            byte[] expected;
+            try {
+                expected = Base64.getUrlDecoder().decode(input.toString());
+            } catch (IllegalArgumentException e) {
+                expected = null;
+            }
+            byte[] actual;
+            try {
+                actual = Base64Url.decode(input);
+            } catch (IllegalArgumentException e) {
+                actual = null;
+            }
+            assertArrayEquals(expected, actual, "input: " + input);
+        }
+    }
+
+    @Test
+    public void testDecode_IntoCallerBufferRange() {
+        byte[] bytes = "{\"sub\":\"alice\",\"roles\":[\"USER\"]}".getBytes(StandardCharsets.UTF_8);
+        String token = "header." + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes) + ".signature";
+        int start = token.indexOf('.') + 1;
+        int end = token.lastIndexOf('.');
+
+        byte[] buffer = new byte[bytes.length + 10];
+        Arrays.fill(buffer, (byte) 7);
+        int written = Base64Url.decode(token, start, end, buffer, 5);
+
+        assertEquals(bytes.length, written);
+        assertEquals(bytes.length, Base64Url.decodedLength(token, start, end));
+        assertArrayEquals(bytes, Arrays.copyOfRange(buffer, 5, 5 + written));
+        assertEquals(7, buffer[4]);
+        assertEquals(7, buffer[5 + written]);
+        assertThrows(IndexOutOfBoundsException.class, () -> Base64Url.decode(token, start, end, new byte[bytes.length - 1], 0));
+    }
+}
@@ -0,0 +1,128 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.user.BatchingQueryJwtUserService;
+import com.seok.easyjwt.user.JwtUser;
+import com.seok.easyjwt.user.QueryJwtUserService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BatchingQueryJwtUserServiceTest {
+
+    @Test
+    public void testExecute_MergesConcurrentLookups() throws Exception {
+        BulkService bulkService = new BulkService();
+        BatchingQueryJwtUserService service = new BatchingQueryJwtUserService(bulkService, 100, 1000);
+
+        List<Optional<JwtUser>> results = lookupConcurrently(service, 20);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("user" + i, results.get(i).orElseThrow().getUsername());
+        }
+        // All lookups started within the window, so far fewer bulk queries than lookups
+        assertTrue(bulkService.batches.size() < 20, "Batches: " + bulkService.batches);
+        assertEquals(20, bulkService.batches.stream().mapToInt(Collection::size).sum());
+    }
+
+    @Test
+    public void testExecute_FullBatchFetchedRightAway() throws Exception {
+        BulkService bulkService = new BulkService();
+        // With a window far longer than the test, batches can only be fetched by filling them up
+        BatchingQueryJwtUserService service = new BatchingQueryJwtUserService(bulkService, 60_000, 4);
+
+        List<Optional<JwtUser>> results = lookupConcurrently(service, 8);
+
+        assertEquals(8, results.size());
+        assertTrue(bulkService.batches.stream().allMatch(batch -> batch.size() <= 4));
+    }
+
+    @Test
+    public void testExecute_MissingUserAndFailures() {
+        QueryJwtUserService delegate = new BulkService() {
+            @Override
+            public Map<String, JwtUser> executeAll(Collection<String> usernames) {
+                if (usernames.contains("broken")) {
+                    throw new IllegalStateException("Database down");
+                }
+                return Map.of();
+            }
+        };
+        BatchingQueryJwtUserService service = new BatchingQueryJwtUserService(delegate, 1, 10);
+
+        assertTrue(service.execute("ghost").isEmpty());
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> service.execute("broken"));
+        assertEquals("Database down", exception.getMessage());
+    }
+
+    @Test
+    public void testExecuteAll_DefaultFallsBackToPointQueries() {
+        JwtUser alice = mock(JwtUser.class);
+        QueryJwtUserService pointService = username -> "alice".equals(username) ? Optional.of(alice) : Optional.empty();
+
+        Map<String, JwtUser> users = pointService.executeAll(List.of("alice", "bob"));
+
+        assertEquals(Map.of("alice", alice), users);
+    }
+
+    private static List<Optional<JwtUser>> lookupConcurrently(QueryJwtUserService service, int count) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Optional<JwtUser>>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String username = "user" + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return service.execute(username);
+                }));
+            }
+            start.countDown();
+
+            List<Optional<JwtUser>> results = new ArrayList<>();
+            for (Future<Optional<JwtUser>> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class BulkService implements QueryJwtUserService {
+
+        final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Optional<JwtUser> execute(String username) {
+            throw new AssertionError("Point query used instead of bulk query");
+        }
+
+        @Override
+        public Map<String, JwtUser> executeAll(Collection<String> usernames) {
+            batches.add(new ArrayList<>(usernames));
+            Map<String, JwtUser> users = new HashMap<>();
+            for (String username : usernames) {
+                JwtUser user = mock(JwtUser.class);
+                when(user.getUsername()).thenReturn(username);
+                users.put(username, user);
+            }
+            return users;
+        }
+    }
+}
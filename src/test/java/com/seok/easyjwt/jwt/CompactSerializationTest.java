@@ -0,0 +1,209 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.auth.JwtUserDetails;
+import com.seok.easyjwt.auth.JwtUserDetailsCodec;
+import com.seok.easyjwt.auth.LazyJwtUserDetails;
+import com.seok.easyjwt.user.JwtUser;
+import com.seok.easyjwt.user.SimpleJwtUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactSerializationTest {
+
+    private static final List<String> ROLES = List.of("ROLE_USER", "ROLE_ADMIN", "orders:read", "orders:write");
+
+    @Test
+    public void testJwtUserDetails_RoundTrip() throws Exception {
+        JwtUserDetails details = new JwtUserDetails(SimpleJwtUser.of("alice", ROLES));
+
+        JwtUserDetails copy = (JwtUserDetails) deserialize(serialize(details));
+
+        assertEquals("alice", copy.getUsername());
+        assertEquals(details.getJwtUser(), copy.getJwtUser());
+        assertEquals(details.getAuthorities(), copy.getAuthorities());
+    }
+
+    @Test
+    public void testJwtUserDetails_CustomUserRoundTrip() throws Exception {
+        JwtUserDetails details = new JwtUserDetails(new PlainUser("bob", ROLES));
+
+        JwtUserDetails copy = (JwtUserDetails) deserialize(serialize(details));
+
+        assertInstanceOf(PlainUser.class, copy.getJwtUser());
+        assertEquals("bob", copy.getUsername());
+        assertEquals(4, copy.getAuthorities().size());
+    }
+
+    @Test
+    public void testJwtUserDetails_CompactFormIsSmaller() throws Exception {
+        JwtUser user = SimpleJwtUser.of("alice", ROLES);
+        byte[] compact = serialize(new JwtUserDetails(user));
+        byte[] regular = serialize(new DefaultFormJwtUserDetails(user));
+        // Only count the bytes the default form adds, not the longer name of the test class
+        int regularLength = regular.length - (DefaultFormJwtUserDetails.class.getName().length() - JwtUserDetails.class.getName().length());
+
+        assertTrue(compact.length * 3 < regularLength * 2,
+                "compact form " + compact.length + " bytes, default form " + regularLength + " bytes");
+    }
+
+    @Test
+    public void testJwtUserDetails_ExternalizableUserIsCompact() throws Exception {
+        byte[] externalizable = serialize(new JwtUserDetails(new ExternalizableUser("alice", ROLES)));
+        byte[] plain = serialize(new JwtUserDetails(new PlainUser("alice", ROLES)));
+
+        JwtUserDetails copy = (JwtUserDetails) deserialize(externalizable);
+        assertEquals("alice", copy.getUsername());
+        assertEquals(SimpleJwtUser.of("alice", ROLES).getAuthorities(), copy.getAuthorities());
+        assertTrue(externalizable.length * 3 < plain.length * 2,
+                "externalizable user " + externalizable.length + " bytes, plain user " + plain.length + " bytes");
+    }
+
+    @Test
+    public void testLazyJwtUserDetails_SerializesCompactForm() throws Exception {
+        LazyJwtUserDetails lazy = new LazyJwtUserDetails("carol", () -> SimpleJwtUser.of("carol", ROLES));
+
+        Object copy = deserialize(serialize(lazy));
+
+        assertEquals(JwtUserDetails.class, copy.getClass());
+        assertEquals(SimpleJwtUser.of("carol", ROLES), ((JwtUserDetails) copy).getJwtUser());
+    }
+
+    @Test
+    public void testSimpleJwtUser_FromClaims() {
+        Claims listClaims = Jwts.claims().subject("dave").add("roles", ROLES).build();
+        Claims scopeClaims = Jwts.claims().subject("dave").add("scope", "orders:read orders:write").build();
+
+        assertEquals(SimpleJwtUser.of("dave", ROLES), SimpleJwtUser.fromClaims(listClaims, "roles"));
+        assertEquals(SimpleJwtUser.of("dave", List.of("orders:read", "orders:write")),
+                SimpleJwtUser.fromClaims(scopeClaims, "scope"));
+        assertTrue(SimpleJwtUser.fromClaims(scopeClaims, "roles").getAuthorities().isEmpty());
+    }
+
+    @Test
+    public void testCodec_RoundTrip() {
+        byte[] encoded = JwtUserDetailsCodec.encode(new JwtUserDetails(new PlainUser("erin", ROLES)));
+
+        JwtUserDetails decoded = JwtUserDetailsCodec.decode(encoded);
+
+        assertEquals(SimpleJwtUser.of("erin", ROLES), decoded.getJwtUser());
+        // Version byte, length-prefixed username, count, and length-prefixed authorities
+        assertEquals(1 + 2 + 4 + 4 + ROLES.stream().mapToInt(role -> 2 + role.length()).sum(), encoded.length);
+    }
+
+    @Test
+    public void testCodec_RejectsUnknownVersion() {
+        byte[] encoded = JwtUserDetailsCodec.encode(new JwtUserDetails(SimpleJwtUser.of("frank", ROLES)));
+        encoded[0] = 9;
+
+        assertThrows(IllegalArgumentException.class, () -> JwtUserDetailsCodec.decode(encoded));
+        assertThrows(IllegalArgumentException.class, () -> JwtUserDetailsCodec.decode(new byte[]{1, 0}));
+    }
+
+    private static byte[] serialize(Object object) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    /**
+     * {@link JwtUserDetails} with the default serialized form, as written before the compact form.
+     */
+    static class DefaultFormJwtUserDetails implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final JwtUser jwtUser;
+
+        DefaultFormJwtUserDetails(JwtUser jwtUser) {
+            this.jwtUser = jwtUser;
+        }
+    }
+
+    public static class ExternalizableUser implements JwtUser, Externalizable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String username;
+        private List<GrantedAuthority> authorities;
+
+        public ExternalizableUser() {
+        }
+
+        ExternalizableUser(String username, List<String> roles) {
+            this.username = username;
+            this.authorities = new ArrayList<>(SimpleJwtUser.of(username, roles).getAuthorities());
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public Collection<? extends GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeUTF(username);
+            SimpleJwtUser.writeAuthorities(out, authorities);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            username = in.readUTF();
+            authorities = SimpleJwtUser.readAuthorities(in);
+        }
+    }
+
+    static class PlainUser implements JwtUser {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String username;
+        private final List<GrantedAuthority> authorities = new ArrayList<>();
+
+        PlainUser(String username, List<String> roles) {
+            this.username = username;
+            roles.forEach(role -> authorities.add(new SimpleGrantedAuthority(role)));
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public Collection<? extends GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.connection.ConnectionAuthRegistry;
+import com.seok.easyjwt.connection.ConnectionAuthRegistry.Connection;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionAuthRegistryTest {
+
+    @Test
+    public void testCallback_FiresAtTokenExpiry() throws Exception {
+        try (ConnectionAuthRegistry registry = new ConnectionAuthRegistry(Duration.ofMillis(5), null)) {
+            // Token expiries have a resolution of one second
+            Claims claims = Jwts.claims().subject("alice").expiration(new Date(System.currentTimeMillis() + 1_200)).build();
+            long expiresAt = claims.getExpiration().getTime();
+            AtomicLong firedAt = new AtomicLong();
+            CountDownLatch fired = new CountDownLatch(1);
+
+            Connection connection = registry.register(claims, expired -> {
+                firedAt.set(System.currentTimeMillis());
+                fired.countDown();
+            });
+            assertTrue(connection.isActive());
+            assertEquals(1, registry.size());
+
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+            assertTrue(firedAt.get() >= expiresAt - 1, "fired " + (expiresAt - firedAt.get()) + " ms early");
+            assertTrue(firedAt.get() < expiresAt + 500, "fired " + (firedAt.get() - expiresAt) + " ms late");
+            assertFalse(connection.isActive());
+            assertEquals(0, registry.size());
+        }
+    }
+
+    @Test
+    public void testCancel_StopsCallback() throws Exception {
+        try (ConnectionAuthRegistry registry = new ConnectionAuthRegistry(Duration.ofMillis(5), null)) {
+            AtomicInteger fired = new AtomicInteger();
+            Connection connection = registry.register("alice", System.currentTimeMillis() + 50, expired -> fired.incrementAndGet());
+
+            connection.cancel();
+            Thread.sleep(150);
+
+            assertEquals(0, fired.get());
+            assertEquals(0, registry.size());
+            assertFalse(connection.extend(System.currentTimeMillis() + 50));
+        }
+    }
+
+    @Test
+    public void testExtend_MovesExpiryBothWays() throws Exception {
+        try (ConnectionAuthRegistry registry = new ConnectionAuthRegistry(Duration.ofMillis(5), null)) {
+            AtomicLong firedAt = new AtomicLong();
+            CountDownLatch fired = new CountDownLatch(1);
+            Connection later = registry.register("alice", System.currentTimeMillis() + 50, expired -> {
+                firedAt.set(System.currentTimeMillis());
+                fired.countDown();
+            });
+            long extendedTo = System.currentTimeMillis() + 300;
+            assertTrue(later.extend(extendedTo));
+
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+            assertTrue(firedAt.get() >= extendedTo - 1);
+
+            CountDownLatch firedSooner = new CountDownLatch(1);
+            Connection sooner = registry.register("bob", System.currentTimeMillis() + 60_000, expired -> firedSooner.countDown());
+            sooner.extend(System.currentTimeMillis() + 50);
+            assertTrue(firedSooner.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testCallback_CanRevalidateConnection() throws Exception {
+        try (ConnectionAuthRegistry registry = new ConnectionAuthRegistry(Duration.ofMillis(5), null)) {
+            AtomicInteger expiries = new AtomicInteger();
+            CountDownLatch closed = new CountDownLatch(1);
+            Connection connection = registry.register("alice", System.currentTimeMillis() + 20, expired -> {
+                // The first expiry is revalidated, the second one closes the connection
+                if (expiries.incrementAndGet() == 1) {
+                    expired.extend(System.currentTimeMillis() + 50);
+                } else {
+                    closed.countDown();
+                }
+            });
+
+            assertTrue(closed.await(5, TimeUnit.SECONDS));
+            assertEquals(2, expiries.get());
+            assertFalse(connection.isActive());
+        }
+    }
+
+    @Test
+    public void testExpireAll_EndsConnectionsOfSubjectNow() throws Exception {
+        try (ConnectionAuthRegistry registry = new ConnectionAuthRegistry(Duration.ofMillis(5), null)) {
+            AtomicInteger fired = new AtomicInteger();
+            long expiresAt = System.currentTimeMillis() + 60_000;
+            Connection first = registry.register("alice", expiresAt, expired -> fired.incrementAndGet());
+            Connection second = registry.register("alice", expiresAt, expired -> fired.incrementAndGet());
+            Connection other = registry.register("bob", expiresAt, expired -> fired.incrementAndGet());
+
+            assertEquals(2, registry.expireAll("alice"));
+            assertEquals(0, registry.expireAll("alice"));
+
+            assertEquals(2, fired.get());
+            assertFalse(first.isActive());
+            assertFalse(second.isActive());
+            assertTrue(other.isActive());
+            assertEquals(1, registry.size());
+        }
+    }
+
+    @Test
+    public void testScale_ManyConnectionsAcrossWheelLevels() throws Exception {
+        int connections = 200_000;
+        // A 1 ms tick makes expiries of up to 4.5 seconds go through three levels of the wheel
+        try (ConnectionAuthRegistry registry = new ConnectionAuthRegistry(Duration.ofMillis(1), null)) {
+            AtomicInteger fired = new AtomicInteger();
+            AtomicInteger early = new AtomicInteger();
+            CountDownLatch allFired = new CountDownLatch(connections);
+
+            long start = System.currentTimeMillis();
+            long registrationStart = System.nanoTime();
+            for (int i = 0; i < connections; i++) {
+                long expiresAt = start + 100 + (i * 4_400L / connections);
+                registry.register("user-" + (i % 10_000), expiresAt, expired -> {
+                    if (System.currentTimeMillis() < expired.getExpiresAt() - 1) {
+                        early.incrementAndGet();
+                    }
+                    fired.incrementAndGet();
+                    allFired.countDown();
+                });
+            }
+            long registrationMillis = (System.nanoTime() - registrationStart) / 1_000_000;
+            assertTrue(registrationMillis < 2_000, "registration took " + registrationMillis + " ms");
+
+            assertTrue(allFired.await(15, TimeUnit.SECONDS), fired.get() + " of " + connections + " fired");
+            assertEquals(0, early.get());
+            assertEquals(0, registry.size());
+        }
+    }
+}
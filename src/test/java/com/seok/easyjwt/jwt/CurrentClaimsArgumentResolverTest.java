@@ -0,0 +1,82 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.user.CurrentUserService;
+import com.seok.easyjwt.web.CurrentClaims;
+import com.seok.easyjwt.web.CurrentClaimsArgumentResolver;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CurrentClaimsArgumentResolverTest {
+
+    private CurrentClaimsArgumentResolver resolver;
+    private Method handler;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        resolver = new CurrentClaimsArgumentResolver(new CurrentUserService<>());
+        handler = Controller.class.getDeclaredMethod("handle", Claims.class, String.class, Long.class, String.class);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testSupportsParameter_OnlyAnnotated() {
+        assertTrue(resolver.supportsParameter(new MethodParameter(handler, 0)));
+        assertTrue(resolver.supportsParameter(new MethodParameter(handler, 1)));
+        assertFalse(resolver.supportsParameter(new MethodParameter(handler, 3)));
+    }
+
+    @Test
+    public void testResolveArgument_FromRequestAttribute() {
+        Claims claims = Jwts.claims().subject("testUser").add("tenant", "acme").add("quota", 42).build();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(JwtFilter.CLAIMS_ATTRIBUTE, claims);
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+
+        assertSame(claims, resolver.resolveArgument(new MethodParameter(handler, 0), null, webRequest, null));
+        assertEquals("acme", resolver.resolveArgument(new MethodParameter(handler, 1), null, webRequest, null));
+        assertEquals(42L, resolver.resolveArgument(new MethodParameter(handler, 2), null, webRequest, null));
+    }
+
+    @Test
+    public void testResolveArgument_PrimitiveParameter() throws Exception {
+        Method primitive = Controller.class.getDeclaredMethod("handlePrimitive", int.class);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+
+        request.setAttribute(JwtFilter.CLAIMS_ATTRIBUTE, Jwts.claims().subject("testUser").add("age", 42).build());
+        assertEquals(42, resolver.resolveArgument(new MethodParameter(primitive, 0), null, webRequest, null));
+
+        request.setAttribute(JwtFilter.CLAIMS_ATTRIBUTE, Jwts.claims().subject("testUser").build());
+        assertThrows(IllegalStateException.class,
+                () -> resolver.resolveArgument(new MethodParameter(primitive, 0), null, webRequest, null));
+    }
+
+    @Test
+    public void testResolveArgument_NotAuthenticated() {
+        ServletWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest());
+
+        assertThrows(IllegalStateException.class,
+                () -> resolver.resolveArgument(new MethodParameter(handler, 0), null, webRequest, null));
+    }
+
+    static class Controller {
+
+        void handle(@CurrentClaims Claims claims, @CurrentClaims("tenant") String tenant,
+                    @CurrentClaims("quota") Long quota, String other) {
+        }
+
+        void handlePrimitive(@CurrentClaims("age") int age) {
+        }
+    }
+}
@@ -1,12 +1,28 @@
 package com.seok.easyjwt.jwt;
 
 
+import com.seok.easyjwt.auth.JwtAuthentication;
 import com.seok.easyjwt.auth.JwtUserDetails;
+import com.seok.easyjwt.user.CurrentUserScope;
 import com.seok.easyjwt.user.CurrentUserService;
 import com.seok.easyjwt.user.JwtUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -41,9 +57,99 @@ public class CurrentUserServiceTest {
         });
         assertEquals("Current user is not authenticated", exception.getMessage());
     }
+
+    @Test
+    public void testGetCurrentUser_ScopedPrincipalTakesPrecedence() throws Exception {
+        JwtUser scopedUser = mock(JwtUser.class);
+
+        JwtUser currentUser = CurrentUserScope.callWhere(new JwtUserDetails(scopedUser), currentUserService::getCurrentUser);
+
+        assertEquals(scopedUser, currentUser);
+        assertNull(CurrentUserScope.currentPrincipal());
+        assertThrows(IllegalStateException.class, () -> currentUserService.getCurrentUser());
+    }
+
+    @Test
+    public void testInvokeAll_PropagatesPrincipalToForkedTasks() throws Exception {
+        JwtUser scopedUser = mock(JwtUser.class);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<JwtUser> task = currentUserService::getCurrentUser;
+            List<JwtUser> users = CurrentUserScope.callWhere(new JwtUserDetails(scopedUser),
+                    () -> CurrentUserScope.invokeAll(executor, List.of(task, task, task)));
+
+            assertEquals(List.of(scopedUser, scopedUser, scopedUser), users);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testInvokeAll_FailsFastAndWaitsForCancelledTasks() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicBoolean slowTaskReturned = new AtomicBoolean();
+        CountDownLatch slowTaskStarted = new CountDownLatch(1);
+        try {
+            Callable<String> slow = () -> {
+                slowTaskStarted.countDown();
+                try {
+                    Thread.sleep(30_000);
+                    return "slow";
+                } finally {
+                    slowTaskReturned.set(true);
+                }
+            };
+            Callable<String> failing = () -> {
+                // Fails once the slow task is running, so it has to be interrupted rather than skipped
+                slowTaskStarted.await();
+                throw new IllegalStateException("boom");
+            };
+
+            long start = System.nanoTime();
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> CurrentUserScope.invokeAll(executor, List.of(slow, failing)));
+
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+            assertTrue(slowTaskReturned.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGetCurrentClaims_FromAuthentication() {
+        Claims claims = Jwts.claims().subject("testUser").add("tenant", "acme").build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new JwtAuthentication(new JwtUserDetails(mock(JwtUser.class)), "token", claims));
+
+        assertSame(claims, currentUserService.getCurrentClaims());
+    }
+
+    @Test
+    public void testGetCurrentClaims_FromRequestAttribute() {
+        Claims claims = Jwts.claims().subject("testUser").build();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(JwtFilter.CLAIMS_ATTRIBUTE, claims);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            assertSame(claims, currentUserService.getCurrentClaims());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    public void testGetCurrentClaims_NotAuthenticated() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> currentUserService.getCurrentClaims());
+        assertEquals("Current user is not authenticated", exception.getMessage());
+    }
 }
 
 class JwtAuthenticationToken extends org.springframework.security.authentication.UsernamePasswordAuthenticationToken {
+
+    private static final long serialVersionUID = 1L;
+
     public JwtAuthenticationToken(JwtUserDetails principal) {
         super(principal, null, principal.getAuthorities());
     }
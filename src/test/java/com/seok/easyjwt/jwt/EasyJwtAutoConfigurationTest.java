@@ -1,8 +1,12 @@
 package com.seok.easyjwt.jwt;
 
 
+import com.seok.easyjwt.auth.JwtUserDetailsService;
 import com.seok.easyjwt.configuration.EasyJwtAutoConfiguration;
+import com.seok.easyjwt.user.BatchingQueryJwtUserService;
+import com.seok.easyjwt.user.JwtUserCache;
 import com.seok.easyjwt.user.QueryJwtUserService;
+import com.seok.easyjwt.version.TokenVersionSource;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
@@ -11,6 +15,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -28,6 +33,41 @@ public class EasyJwtAutoConfigurationTest {
                     assertThat(context).hasSingleBean(JwtProperties.class);
                     assertThat(context).hasSingleBean(JwtTokenProvider.class);
                     assertThat(context).hasSingleBean(JwtFilter.class);
+                    assertThat(context).doesNotHaveBean(SlidingSessionRenewer.class);
+                });
+    }
+
+    @Test
+    public void testSlidingSessionEnabled() {
+        contextRunner
+                .withPropertyValues("easy-jwt.secret=467fc8a59f7ea1275f68d3f09f85935901d32ba65a3ab9af9a90dfd62ccfc2cd",
+                        "easy-jwt.sliding-session.enabled=true")
+                .run(context -> assertThat(context).hasSingleBean(SlidingSessionRenewer.class));
+    }
+
+    @Test
+    public void testTokenVersionSourceIgnoredWhenDisabled() {
+        contextRunner
+                .withBean(TokenVersionSource.class, () -> username -> 7L)
+                .withPropertyValues("easy-jwt.secret=467fc8a59f7ea1275f68d3f09f85935901d32ba65a3ab9af9a90dfd62ccfc2cd")
+                .run(context -> {
+                    JwtTokenProvider jwtTokenProvider = context.getBean(JwtTokenProvider.class);
+                    String token = jwtTokenProvider.generateAccessToken("testUser", null);
+                    assertThat(jwtTokenProvider.getClaims(token)).doesNotContainKey(JwtTokenProvider.VERSION_CLAIM);
+                });
+    }
+
+    @Test
+    public void testUserBatching_SharedByServiceAndCache() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(QueryServiceConfig.class)
+                .withConfiguration(AutoConfigurations.of(EasyJwtAutoConfiguration.class))
+                .withPropertyValues("easy-jwt.secret=467fc8a59f7ea1275f68d3f09f85935901d32ba65a3ab9af9a90dfd62ccfc2cd",
+                        "easy-jwt.user-batching.enabled=true", "easy-jwt.user-cache.enabled=true")
+                .run(context -> {
+                    Object serviceQuery = ReflectionTestUtils.getField(context.getBean(JwtUserDetailsService.class), "queryJwtUserService");
+                    Object cacheQuery = ReflectionTestUtils.getField(context.getBean(JwtUserCache.class), "queryJwtUserService");
+                    assertThat(serviceQuery).isInstanceOf(BatchingQueryJwtUserService.class).isSameAs(cacheQuery);
                 });
     }
 
@@ -42,6 +82,16 @@ public class EasyJwtAutoConfigurationTest {
                 });
     }
 
+    // Leaves the UserDetailsService to the auto-configuration
+    @Configuration
+    static class QueryServiceConfig {
+
+        @Bean
+        public QueryJwtUserService queryJwtUserService() {
+            return Mockito.mock(QueryJwtUserService.class);
+        }
+    }
+
     // Test configuration to provide required beans
     @Configuration
     static class TestConfig {
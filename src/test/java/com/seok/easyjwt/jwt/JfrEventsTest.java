@@ -0,0 +1,119 @@
+package com.seok.easyjwt.jwt;
+
+import com.seok.easyjwt.auth.JwtAuthentication;
+import com.seok.easyjwt.exception.InvalidTokenException;
+import com.seok.easyjwt.jfr.JwtFilterEvent;
+import com.seok.easyjwt.jfr.TokenIssueEvent;
+import com.seok.easyjwt.jfr.TokenVerificationEvent;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JfrEventsTest {
+
+    private static final String ISSUE_EVENT = "com.seok.easyjwt.TokenIssue";
+    private static final String VERIFICATION_EVENT = "com.seok.easyjwt.TokenVerification";
+    private static final String FILTER_EVENT = "com.seok.easyjwt.JwtFilter";
+
+    @TempDir
+    Path tempDir;
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("VerySecretKey12345678901234567890");
+        jwtTokenProvider = new JwtTokenProvider(mock(UserDetailsService.class), jwtProperties);
+    }
+
+    @Test
+    public void testEventsRecorded() throws Exception {
+        Path file = tempDir.resolve("easy-jwt.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TokenIssueEvent.class).withoutThreshold();
+            recording.enable(TokenVerificationEvent.class).withoutThreshold();
+            recording.start();
+
+            String token = jwtTokenProvider.generateAccessToken("testUser", Map.of());
+            jwtTokenProvider.getClaims(token);
+            assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.getClaims(token + "x"));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<RecordedEvent> issued = byName(events, ISSUE_EVENT);
+        assertEquals(1, issued.size());
+        assertEquals("ACCESS", issued.get(0).getString("tokenType"));
+
+        List<String> outcomes = byName(events, VERIFICATION_EVENT).stream()
+                .map(event -> event.getString("outcome"))
+                .collect(Collectors.toList());
+        assertEquals(List.of("VALID", "INVALID"), outcomes);
+
+        // The subject is only recorded as a hash, identical across events of the same user
+        int subjectHash = issued.get(0).getInt("subjectHash");
+        assertNotEquals(0, subjectHash);
+        assertEquals(subjectHash, byName(events, VERIFICATION_EVENT).get(0).getInt("subjectHash"));
+    }
+
+    @Test
+    public void testFilterEventRecordsTokenType() throws Exception {
+        Claims claims = Jwts.claims().subject("testUser").add(JwtTokenProvider.TYPE_CLAIM, "ACCESS").build();
+        JwtTokenProvider provider = mock(JwtTokenProvider.class);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(provider.resolveToken(request)).thenReturn("token");
+        when(provider.getAuthentication("token")).thenReturn(new JwtAuthentication(mock(UserDetails.class), "token", claims));
+
+        Path file = tempDir.resolve("easy-jwt-filter.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(JwtFilterEvent.class).withoutThreshold();
+            recording.start();
+
+            new JwtFilter(provider).doFilter(request, mock(HttpServletResponse.class), mock(FilterChain.class));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> filtered = byName(RecordingFile.readAllEvents(file), FILTER_EVENT);
+        assertEquals(1, filtered.size());
+        assertEquals("AUTHENTICATED", filtered.get(0).getString("outcome"));
+        assertEquals("ACCESS", filtered.get(0).getString("tokenType"));
+    }
+
+    @Test
+    public void testNoEventsWithoutRecording() {
+        // Without a recording, the instrumented paths behave exactly as before
+        String token = jwtTokenProvider.generateAccessToken("testUser", Map.of());
+        assertEquals("testUser", jwtTokenProvider.getClaims(token).getSubject());
+        assertFalse(new TokenVerificationEvent().isEnabled());
+    }
+
+    private static List<RecordedEvent> byName(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+}
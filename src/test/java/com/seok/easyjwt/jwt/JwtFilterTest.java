@@ -1,17 +1,26 @@
 package com.seok.easyjwt.jwt;
 
 
+import com.seok.easyjwt.auth.JwtAuthentication;
+import com.seok.easyjwt.auth.JwtUserDetails;
 import com.seok.easyjwt.exception.EasyJwtException;
+import com.seok.easyjwt.user.CurrentUserScope;
+import com.seok.easyjwt.user.JwtUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -80,4 +89,64 @@ public class JwtFilterTest {
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDoFilterInternal_RenewsExpiringToken() throws ServletException, IOException {
+        SlidingSessionRenewer renewer = mock(SlidingSessionRenewer.class);
+        JwtFilter slidingFilter = new JwtFilter(jwtTokenProvider, renewer);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain filterChain = mock(FilterChain.class);
+
+        String token = "valid.token.here";
+        Claims claims = Jwts.claims().subject("testUser").build();
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("testUser", token);
+        authentication.setDetails(claims);
+        when(jwtTokenProvider.resolveToken(request)).thenReturn(token);
+        when(jwtTokenProvider.getAuthentication(token)).thenReturn(authentication);
+        when(renewer.renewIfExpiring(claims)).thenReturn("renewed.token.here");
+        when(renewer.getHeaderName()).thenReturn("X-Renewed-Token");
+
+        slidingFilter.doFilterInternal(request, response, filterChain);
+
+        verify(response).setHeader("X-Renewed-Token", "renewed.token.here");
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    public void testDoFilterInternal_BindsPrincipalForChain() throws ServletException, IOException {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        JwtUserDetails principal = new JwtUserDetails(mock(JwtUser.class));
+        AtomicReference<JwtUserDetails> bound = new AtomicReference<>();
+        FilterChain filterChain = (req, res) -> bound.set(CurrentUserScope.currentPrincipal());
+
+        when(jwtTokenProvider.resolveToken(request)).thenReturn("valid.token.here");
+        when(jwtTokenProvider.getAuthentication("valid.token.here"))
+                .thenReturn(new UsernamePasswordAuthenticationToken(principal, "valid.token.here", List.of()));
+
+        new JwtFilter(jwtTokenProvider, null, true).doFilterInternal(request, response, filterChain);
+
+        assertSame(principal, bound.get());
+        assertNull(CurrentUserScope.currentPrincipal());
+        assertSame(principal, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    public void testDoFilterInternal_ExposesClaimsAttribute() throws ServletException, IOException {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain filterChain = mock(FilterChain.class);
+        Claims claims = Jwts.claims().subject("testUser").add("tenant", "acme").build();
+        JwtUserDetails principal = new JwtUserDetails(mock(JwtUser.class));
+
+        when(jwtTokenProvider.resolveToken(request)).thenReturn("valid.token.here");
+        when(jwtTokenProvider.getAuthentication("valid.token.here"))
+                .thenReturn(new JwtAuthentication(principal, "valid.token.here", claims));
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        verify(request).setAttribute(JwtFilter.CLAIMS_ATTRIBUTE, claims);
+        verify(filterChain).doFilter(request, response);
+    }
+}
@@ -0,0 +1,75 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.core.JwtIssuer;
+import com.seok.easyjwt.core.JwtVerifier;
+import com.seok.easyjwt.grpc.JwtServerInterceptor;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class JwtServerInterceptorTest {
+
+    private JwtIssuer jwtIssuer;
+    private JwtServerInterceptor interceptor;
+    private ServerCall<Object, Object> call;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        SecretKey secretKey = Keys.hmacShaKeyFor("VerySecretKey12345678901234567890".getBytes(StandardCharsets.UTF_8));
+        jwtIssuer = new JwtIssuer(secretKey);
+        interceptor = new JwtServerInterceptor(new JwtVerifier(secretKey), "Bearer ");
+        call = mock(ServerCall.class);
+    }
+
+    @Test
+    public void testInterceptCall_ValidToken() {
+        Metadata headers = new Metadata();
+        headers.put(JwtServerInterceptor.AUTHORIZATION_KEY, "Bearer " + jwtIssuer.issue("testUser", 60, TokenType.ACCESS, null));
+        AtomicReference<Claims> seenClaims = new AtomicReference<>();
+        ServerCallHandler<Object, Object> next = (serverCall, metadata) -> {
+            seenClaims.set(JwtServerInterceptor.CLAIMS_CONTEXT_KEY.get());
+            return new ServerCall.Listener<>() {
+            };
+        };
+
+        interceptor.interceptCall(call, headers, next);
+
+        assertEquals("testUser", seenClaims.get().getSubject());
+        verify(call, never()).close(any(), any());
+    }
+
+    @Test
+    public void testInterceptCall_InvalidToken() {
+        Metadata headers = new Metadata();
+        headers.put(JwtServerInterceptor.AUTHORIZATION_KEY, "Bearer invalid.token.here");
+
+        interceptor.interceptCall(call, headers, (serverCall, metadata) -> fail("Call must not proceed"));
+
+        ArgumentCaptor<Status> status = ArgumentCaptor.forClass(Status.class);
+        verify(call).close(status.capture(), any());
+        assertEquals(Status.Code.UNAUTHENTICATED, status.getValue().getCode());
+    }
+
+    @Test
+    public void testInterceptCall_MissingToken() {
+        interceptor.interceptCall(call, new Metadata(), (serverCall, metadata) -> fail("Call must not proceed"));
+
+        verify(call).close(any(), any());
+    }
+}
@@ -0,0 +1,75 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.auth.JwtUserDetails;
+import com.seok.easyjwt.exception.InvalidTokenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class JwtTenantRegistryTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtTenantRegistry tenantRegistry;
+    private UserDetailsService userDetailsService;
+
+    @BeforeEach
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("VerySecretKey12345678901234567890");
+        jwtProperties.getTenants().put("acme", tenant("AcmeSecretKey123456789012345678901", null));
+
+        userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(mock(JwtUserDetails.class));
+
+        tenantRegistry = new JwtTenantRegistry(jwtProperties);
+        jwtTokenProvider = new JwtTokenProvider(userDetailsService, jwtProperties);
+        jwtTokenProvider.setTenantRegistry(tenantRegistry);
+    }
+
+    @Test
+    public void testTenantToken_DispatchedByIssuer() {
+        String token = jwtTokenProvider.generateAccessToken("acme", "testUser", null);
+
+        assertNotNull(jwtTokenProvider.getAuthentication(token));
+        assertNotNull(jwtTokenProvider.getAuthentication(token, "acme"));
+    }
+
+    @Test
+    public void testTenantToken_RejectedForOtherTenant() {
+        tenantRegistry.register("globex", tenant("GlobexSecretKey12345678901234567890", "https://globex.example"));
+        String token = jwtTokenProvider.generateAccessToken("acme", "testUser", null);
+
+        assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.getAuthentication(token, "globex"));
+        assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.getAuthentication(token, "unknown"));
+    }
+
+    @Test
+    public void testDefaultToken_StillAccepted() {
+        String token = jwtTokenProvider.generateAccessToken("testUser", null);
+
+        assertNotNull(jwtTokenProvider.getAuthentication(token));
+        assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.getAuthentication(token, "acme"));
+    }
+
+    @Test
+    public void testRegisterAndRemoveAtRuntime() {
+        tenantRegistry.register("globex", tenant("GlobexSecretKey12345678901234567890", "https://globex.example"));
+        String token = jwtTokenProvider.generateAccessToken("globex", "testUser", null);
+        assertNotNull(jwtTokenProvider.getAuthentication(token));
+        assertEquals("globex", tenantRegistry.findByIssuer("https://globex.example").getId());
+
+        tenantRegistry.remove("globex");
+        assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.getAuthentication(token));
+    }
+
+    private static JwtProperties.Tenant tenant(String secret, String issuer) {
+        JwtProperties.Tenant tenant = new JwtProperties.Tenant();
+        tenant.setSecret(secret);
+        tenant.setIssuer(issuer);
+        return tenant;
+    }
+}
@@ -1,13 +1,20 @@
 package com.seok.easyjwt.jwt;
 
 
+import com.seok.easyjwt.auth.JwtAuthentication;
 import com.seok.easyjwt.auth.JwtUserDetails;
+import com.seok.easyjwt.auth.LazyJwtUserDetails;
 import com.seok.easyjwt.exception.ExpiredTokenException;
 import com.seok.easyjwt.exception.InvalidTokenException;
+import com.seok.easyjwt.user.JwtUser;
+import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -79,4 +86,60 @@ public class JwtTokenProviderTest {
             jwtTokenProvider.getAuthentication(invalidToken);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetAuthentication_LazyPrincipal() {
+        jwtProperties.setLazyPrincipal(true);
+        String token = jwtTokenProvider.generateAccessToken("testUser", null);
+        JwtUser jwtUser = mock(JwtUser.class);
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(new JwtUserDetails(jwtUser));
+
+        Authentication authentication = jwtTokenProvider.getAuthentication(token);
+        assertEquals("testUser", authentication.getName());
+        verifyNoInteractions(userDetailsService);
+
+        LazyJwtUserDetails principal = (LazyJwtUserDetails) authentication.getPrincipal();
+        assertEquals(jwtUser, principal.getJwtUser());
+        assertEquals(jwtUser, principal.getJwtUser());
+        authentication.getAuthorities();
+        verify(userDetailsService, times(1)).loadUserByUsername("testUser");
+    }
+
+    @Test
+    public void testConsumePurposeToken_OnlyOnce() {
+        jwtProperties.getPurposes().put("password-reset", new JwtProperties.Purpose());
+        String token = jwtTokenProvider.generatePurposeToken("testUser", "password-reset", null);
+
+        assertEquals("testUser", jwtTokenProvider.consume(token, "password-reset").getSubject());
+        InvalidTokenException exception = assertThrows(InvalidTokenException.class, () -> {
+            jwtTokenProvider.consume(token, "password-reset");
+        });
+        assertEquals("Token has already been used", exception.getMessage());
+    }
+
+    @Test
+    public void testConsumePurposeToken_WrongPurpose() {
+        jwtProperties.getPurposes().put("password-reset", new JwtProperties.Purpose());
+        String token = jwtTokenProvider.generatePurposeToken("testUser", "password-reset", null);
+        String accessToken = jwtTokenProvider.generateAccessToken("testUser", null);
+
+        assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.consume(token, "email-verification"));
+        assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.consume(accessToken, "password-reset"));
+        assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.getAuthentication(token));
+        assertThrows(IllegalArgumentException.class, () -> jwtTokenProvider.generatePurposeToken("testUser", "unknown", null));
+    }
+
+    @Test
+    public void testGetAuthentication_CarriesVerifiedClaims() {
+        String token = jwtTokenProvider.generateAccessToken("testUser", Map.of("tenant", "acme"));
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(mock(JwtUserDetails.class));
+
+        Authentication authentication = jwtTokenProvider.getAuthentication(token);
+
+        JwtAuthentication jwtAuthentication = assertInstanceOf(JwtAuthentication.class, authentication);
+        Claims claims = jwtAuthentication.getClaims();
+        assertEquals("testUser", claims.getSubject());
+        assertEquals("acme", claims.get("tenant"));
+        assertSame(claims, authentication.getDetails());
+    }
+}
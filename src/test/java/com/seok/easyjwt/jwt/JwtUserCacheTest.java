@@ -0,0 +1,158 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.user.JwtUser;
+import com.seok.easyjwt.user.JwtUserCache;
+import com.seok.easyjwt.user.QueryJwtUserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class JwtUserCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testGet_CachesUsers() {
+        QueryJwtUserService queryJwtUserService = mock(QueryJwtUserService.class);
+        when(queryJwtUserService.execute("alice")).thenReturn(Optional.of(new TestUser("alice", "ROLE_USER")));
+        when(queryJwtUserService.execute("ghost")).thenReturn(Optional.empty());
+
+        try (JwtUserCache cache = new JwtUserCache(queryJwtUserService, Duration.ofMinutes(5), 100)) {
+            assertEquals("alice", cache.get("alice").orElseThrow().getUsername());
+            assertEquals("alice", cache.get("alice").orElseThrow().getUsername());
+            verify(queryJwtUserService, times(1)).execute("alice");
+
+            // Missing users are not cached
+            assertTrue(cache.get("ghost").isEmpty());
+            assertTrue(cache.get("ghost").isEmpty());
+            verify(queryJwtUserService, times(2)).execute("ghost");
+
+            cache.invalidate("alice");
+            cache.get("alice");
+            verify(queryJwtUserService, times(2)).execute("alice");
+        }
+    }
+
+    @Test
+    public void testGet_EvictsColdestWhenFull() {
+        QueryJwtUserService queryJwtUserService = username -> Optional.of(new TestUser(username, "ROLE_USER"));
+        try (JwtUserCache cache = new JwtUserCache(queryJwtUserService, Duration.ofMinutes(5), 10)) {
+            for (int i = 0; i < 25; i++) {
+                cache.get("user" + i);
+            }
+            assertTrue(cache.size() <= 10);
+        }
+    }
+
+    @Test
+    public void testSnapshot_WarmsNextInstanceWithHottestUsers() throws Exception {
+        Path snapshot = tempDir.resolve("cache/users.snapshot");
+        QueryJwtUserService queryJwtUserService = mock(QueryJwtUserService.class);
+        when(queryJwtUserService.execute(anyString())).thenAnswer(invocation ->
+                Optional.of(new TestUser(invocation.getArgument(0), "ROLE_USER")));
+
+        try (JwtUserCache cache = new JwtUserCache(queryJwtUserService, Duration.ofMinutes(5), 100, snapshot, 2)) {
+            for (int i = 0; i < 5; i++) {
+                cache.get("hot");
+                cache.get("warm");
+            }
+            cache.get("cold");
+        }
+        assertTrue(Files.exists(snapshot));
+
+        QueryJwtUserService restarted = mock(QueryJwtUserService.class);
+        when(restarted.execute(anyString())).thenAnswer(invocation ->
+                Optional.of(new TestUser(invocation.getArgument(0), "ROLE_ADMIN")));
+        when(restarted.executeAll(anyCollection())).thenAnswer(invocation -> {
+            Map<String, JwtUser> users = new HashMap<>();
+            for (String username : invocation.<Collection<String>>getArgument(0)) {
+                users.put(username, new TestUser(username, "ROLE_ADMIN"));
+            }
+            return users;
+        });
+        try (JwtUserCache cache = new JwtUserCache(restarted, Duration.ofMinutes(5), 100, snapshot, 2)) {
+            // The snapshot is a prefetch list, reloaded in one bulk query in the background
+            verify(restarted, timeout(5000)).executeAll(argThat(usernames -> Set.copyOf(usernames).equals(Set.of("hot", "warm"))));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cache.size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, cache.size());
+
+            // Served as returned by the service, never rebuilt from the snapshot
+            JwtUser user = cache.get("hot").orElseThrow();
+            assertInstanceOf(TestUser.class, user);
+            assertEquals("ROLE_ADMIN", user.getAuthorities().iterator().next().getAuthority());
+            verify(restarted, never()).execute("hot");
+
+            cache.get("cold");
+            verify(restarted, times(1)).execute("cold");
+        }
+    }
+
+    @Test
+    public void testSnapshot_WritesNoJavaSerialization() throws Exception {
+        Path snapshot = tempDir.resolve("users.snapshot");
+        try (JwtUserCache cache = new JwtUserCache(username -> Optional.of(new TestUser(username, "ROLE_USER")),
+                Duration.ofMinutes(5), 100, snapshot, 10)) {
+            cache.get("alice");
+        }
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        for (int i = 0; i + 1 < bytes.length; i++) {
+            // The Java serialization stream magic
+            assertFalse(bytes[i] == (byte) 0xAC && bytes[i + 1] == (byte) 0xED, "Serialized object at " + i);
+        }
+        assertFalse(new String(bytes, StandardCharsets.ISO_8859_1).contains(TestUser.class.getName()));
+    }
+
+    @Test
+    public void testSnapshot_IgnoresCorruptFile() throws Exception {
+        Path snapshot = tempDir.resolve("users.snapshot");
+        Files.write(snapshot, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+
+        try (JwtUserCache cache = new JwtUserCache(username -> Optional.empty(), Duration.ofMinutes(5), 100, snapshot, 10)) {
+            assertEquals(0, cache.size());
+        }
+    }
+
+    private static class TestUser implements JwtUser {
+
+        private static final long serialVersionUID = 1L;
+        private final String username;
+        private final List<SimpleGrantedAuthority> authorities;
+
+        TestUser(String username, String authority) {
+            this.username = username;
+            this.authorities = List.of(new SimpleGrantedAuthority(authority));
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public Collection<? extends GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.core.JwtIssuer;
+import com.seok.easyjwt.core.JwtVerifier;
+import com.seok.easyjwt.exception.ExpiredTokenException;
+import com.seok.easyjwt.exception.InvalidTokenException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtVerifierTest {
+
+    private JwtIssuer jwtIssuer;
+    private JwtVerifier jwtVerifier;
+
+    @BeforeEach
+    public void setUp() {
+        SecretKey secretKey = Keys.hmacShaKeyFor("VerySecretKey12345678901234567890".getBytes(StandardCharsets.UTF_8));
+        jwtIssuer = new JwtIssuer(secretKey);
+        jwtVerifier = new JwtVerifier(secretKey);
+    }
+
+    @Test
+    public void testVerify_String() {
+        String token = jwtIssuer.issue("testUser", 60, TokenType.ACCESS, Map.of("scope", "read"));
+
+        Claims claims = jwtVerifier.verify(token, TokenType.ACCESS);
+        assertEquals("testUser", claims.getSubject());
+        assertEquals("read", claims.get("scope"));
+    }
+
+    @Test
+    public void testVerify_ByteArraySlice() {
+        String token = jwtIssuer.issue("testUser", 60, TokenType.ACCESS, null);
+        byte[] header = ("Bearer " + token + "\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        Claims claims = jwtVerifier.verify(header, 7, token.length());
+        assertEquals("testUser", claims.getSubject());
+    }
+
+    @Test
+    public void testVerify_DirectByteBuffer() {
+        String token = jwtIssuer.issue("testUser", 60, TokenType.ACCESS, null);
+        byte[] bytes = token.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 4);
+        buffer.put(new byte[]{1, 2}).put(bytes).put(new byte[]{3, 4}).flip();
+        buffer.position(2).limit(2 + bytes.length);
+
+        Claims claims = jwtVerifier.verify(buffer);
+        assertEquals("testUser", claims.getSubject());
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void testVerify_InvalidTokenType() {
+        String token = jwtIssuer.issue("testUser", 60, TokenType.REFRESH, null);
+
+        assertThrows(InvalidTokenException.class, () -> jwtVerifier.verify(token, TokenType.ACCESS));
+    }
+
+    @Test
+    public void testVerify_ExpiredToken() {
+        String token = jwtIssuer.issue("testUser", -1, TokenType.ACCESS, null);
+
+        assertThrows(ExpiredTokenException.class, () -> jwtVerifier.verify(token));
+    }
+
+    @Test
+    public void testVerify_TamperedBytes() {
+        byte[] bytes = jwtIssuer.issue("testUser", 60, TokenType.ACCESS, null).getBytes(StandardCharsets.US_ASCII);
+        bytes[bytes.length - 2] = (byte) (bytes[bytes.length - 2] == 'A' ? 'B' : 'A');
+
+        assertThrows(InvalidTokenException.class, () -> jwtVerifier.verify(bytes, 0, bytes.length));
+        assertThrows(InvalidTokenException.class, () -> jwtVerifier.verify(bytes, 1, bytes.length));
+    }
+}
@@ -0,0 +1,94 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.jti.MappedJtiStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedJtiStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testMarkUsed_OnlyOnce() {
+        try (MappedJtiStore store = new MappedJtiStore(tempDir.resolve("jti.log"), 4096, false)) {
+            long expiresAt = System.currentTimeMillis() + 60_000;
+
+            assertTrue(store.markUsed("token-1", expiresAt));
+            assertFalse(store.markUsed("token-1", expiresAt));
+            assertTrue(store.markUsed("token-2", expiresAt));
+        }
+    }
+
+    @Test
+    public void testMarkUsed_SurvivesRestart() {
+        Path file = tempDir.resolve("jti.log");
+        long now = System.currentTimeMillis();
+        try (MappedJtiStore store = new MappedJtiStore(file, 4096, false)) {
+            store.markUsed("live", now + 60_000);
+            store.markUsed("expired", now - 1);
+        }
+
+        try (MappedJtiStore store = new MappedJtiStore(file, 4096, false)) {
+            assertEquals(1, store.size());
+            assertFalse(store.markUsed("live", now + 60_000));
+            assertTrue(store.markUsed("other", now + 60_000));
+        }
+    }
+
+    @Test
+    public void testCompaction_DropsExpiredAndGrows() throws Exception {
+        Path file = tempDir.resolve("jti.log");
+        long now = System.currentTimeMillis();
+        try (MappedJtiStore store = new MappedJtiStore(file, 2048, false)) {
+            for (int i = 0; i < 500; i++) {
+                store.markUsed("expired-" + i, now + 50);
+            }
+            for (int i = 0; i < 200; i++) {
+                assertTrue(store.markUsed("live-" + i, now + 60_000));
+            }
+            Thread.sleep(100);
+            store.compact();
+
+            assertEquals(200, store.size());
+            assertFalse(store.markUsed("live-0", now + 60_000));
+        }
+        assertFalse(Files.exists(tempDir.resolve("jti.log.compact")));
+
+        try (MappedJtiStore store = new MappedJtiStore(file, 2048, false)) {
+            assertEquals(200, store.size());
+        }
+    }
+
+    @Test
+    public void testMarkUsed_ConcurrentRedemptions() throws Exception {
+        try (MappedJtiStore store = new MappedJtiStore(tempDir.resolve("jti.log"), 4096, false)) {
+            long expiresAt = System.currentTimeMillis() + 60_000;
+            AtomicInteger successes = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            for (int i = 0; i < 8_000; i++) {
+                String jti = "token-" + (i % 1_000);
+                executor.execute(() -> {
+                    if (store.markUsed(jti, expiresAt)) {
+                        successes.incrementAndGet();
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+            assertEquals(1_000, successes.get());
+            assertEquals(1_000, store.size());
+        }
+    }
+}
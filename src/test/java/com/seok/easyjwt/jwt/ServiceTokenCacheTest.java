@@ -0,0 +1,162 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.client.ServiceTokenCache;
+import com.seok.easyjwt.client.ServiceTokenInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServiceTokenCacheTest {
+
+    @Test
+    public void testGetToken_CachedPerSubjectAndClaims() {
+        AtomicInteger minted = new AtomicInteger();
+        try (ServiceTokenCache cache = new ServiceTokenCache((subject, claims) -> subject + claims + minted.incrementAndGet(),
+                Duration.ofMinutes(10), Duration.ofMinutes(1), 100)) {
+            String first = cache.getToken("orders", Map.of("scope", "read"));
+
+            assertEquals(first, cache.getToken("orders", Map.of("scope", "read")));
+            assertNotEquals(first, cache.getToken("orders", Map.of("scope", "write")));
+            assertNotEquals(first, cache.getToken("billing", Map.of("scope", "read")));
+            assertEquals(3, minted.get());
+        }
+    }
+
+    @Test
+    public void testGetToken_RenewsInBackgroundWithoutBlocking() throws Exception {
+        AtomicInteger minted = new AtomicInteger();
+        CountDownLatch renewalStarted = new CountDownLatch(1);
+        CountDownLatch releaseRenewal = new CountDownLatch(1);
+        // Every token is within its renewal window as soon as it is minted
+        try (ServiceTokenCache cache = new ServiceTokenCache((subject, claims) -> {
+            if (minted.incrementAndGet() > 1) {
+                renewalStarted.countDown();
+                awaitQuietly(releaseRenewal);
+            }
+            return "token-" + minted.get();
+        }, Duration.ofMinutes(10), Duration.ofMinutes(10).minusNanos(1), 100)) {
+            assertEquals("token-1", cache.getToken("orders", null));
+
+            // The renewal is pending, callers keep getting the current token and don't start more renewals
+            for (int i = 0; i < 100; i++) {
+                assertEquals("token-1", cache.getToken("orders", null));
+            }
+            assertTrue(renewalStarted.await(5, TimeUnit.SECONDS));
+            assertEquals(2, minted.get());
+
+            releaseRenewal.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            String token;
+            do {
+                token = cache.getToken("orders", null);
+            } while (token.equals("token-1") && System.nanoTime() < deadline);
+            assertTrue(token.startsWith("token-") && !token.equals("token-1"));
+        }
+    }
+
+    @Test
+    public void testGetToken_CoalescesConcurrentMints() throws Exception {
+        AtomicInteger minted = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        try (ServiceTokenCache cache = new ServiceTokenCache((subject, claims) -> {
+            minted.incrementAndGet();
+            awaitQuietly(release);
+            return "token";
+        }, Duration.ofMinutes(10), Duration.ofMinutes(1), 100)) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                Future<?>[] calls = new Future<?>[8];
+                for (int i = 0; i < calls.length; i++) {
+                    calls[i] = executor.submit(() -> cache.getToken("orders", null));
+                }
+                Thread.sleep(100);
+                release.countDown();
+                for (Future<?> call : calls) {
+                    assertEquals("token", call.get(5, TimeUnit.SECONDS));
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertEquals(1, minted.get());
+        }
+    }
+
+    @Test
+    public void testGetToken_FailedMintIsRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        try (ServiceTokenCache cache = new ServiceTokenCache((subject, claims) -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("signing failed");
+            }
+            return "token";
+        }, Duration.ofMinutes(10), Duration.ofMinutes(1), 100)) {
+            assertThrows(IllegalStateException.class, () -> cache.getToken("orders", null));
+            assertEquals("token", cache.getToken("orders", null));
+        }
+    }
+
+    @Test
+    public void testGetToken_BoundedSize() {
+        try (ServiceTokenCache cache = new ServiceTokenCache((subject, claims) -> subject,
+                Duration.ofMinutes(10), Duration.ofMinutes(1), 10)) {
+            for (int i = 0; i < 100; i++) {
+                cache.getToken("subject-" + i, null);
+            }
+            assertTrue(cache.size() <= 10);
+        }
+    }
+
+    @Test
+    public void testConstructor_RejectsRenewalWindowLongerThanLifetime() {
+        assertThrows(IllegalArgumentException.class, () -> new ServiceTokenCache((subject, claims) -> subject,
+                Duration.ofMinutes(1), Duration.ofMinutes(1), 10));
+    }
+
+    @Test
+    public void testInterceptor_AddsTokenUnlessPresent() throws Exception {
+        try (ServiceTokenCache cache = new ServiceTokenCache((subject, claims) -> "service-token",
+                Duration.ofMinutes(10), Duration.ofMinutes(1), 10)) {
+            ServiceTokenInterceptor interceptor = new ServiceTokenInterceptor(cache, "orders", Map.of());
+            AtomicReference<HttpRequest> sent = new AtomicReference<>();
+            ClientHttpRequestExecution execution = (request, body) -> {
+                sent.set(request);
+                return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+            };
+
+            interceptor.intercept(new MockClientHttpRequest(HttpMethod.GET, URI.create("/orders")), new byte[0], execution);
+            assertEquals("Bearer service-token", sent.get().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+
+            MockClientHttpRequest forwarded = new MockClientHttpRequest(HttpMethod.GET, URI.create("/orders"));
+            forwarded.getHeaders().set(HttpHeaders.AUTHORIZATION, "Bearer user-token");
+            interceptor.intercept(forwarded, new byte[0], execution);
+            assertEquals("Bearer user-token", sent.get().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.exception.InvalidTokenException;
+import com.seok.easyjwt.session.SessionInfo;
+import com.seok.easyjwt.session.SessionRegistry;
+import com.seok.easyjwt.session.SessionStore;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class SessionRegistryTest {
+
+    @Test
+    public void testRegister_EvictsOldestSessions() {
+        SessionRegistry registry = new SessionRegistry(2);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        SessionInfo first = registry.register("alice", expiresAt);
+        SessionInfo second = registry.register("alice", expiresAt);
+        SessionInfo third = registry.register("alice", expiresAt);
+
+        assertFalse(registry.isActive("alice", first.getSessionId()));
+        assertTrue(registry.isActive("alice", second.getSessionId()));
+        assertTrue(registry.isActive("alice", third.getSessionId()));
+        assertEquals(List.of(second.getSessionId(), third.getSessionId()),
+                registry.getSessions("alice").stream().map(SessionInfo::getSessionId).toList());
+    }
+
+    @Test
+    public void testRevoke_SingleAndAll() {
+        SessionRegistry registry = new SessionRegistry(5);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        SessionInfo first = registry.register("alice", expiresAt);
+        SessionInfo second = registry.register("alice", expiresAt);
+        registry.register("alice", expiresAt);
+        SessionInfo other = registry.register("bob", expiresAt);
+
+        assertTrue(registry.revoke("alice", first.getSessionId()));
+        assertFalse(registry.revoke("alice", first.getSessionId()));
+        assertFalse(registry.isActive("alice", first.getSessionId()));
+        assertTrue(registry.isActive("alice", second.getSessionId()));
+
+        assertEquals(2, registry.revokeAll("alice"));
+        assertTrue(registry.getSessions("alice").isEmpty());
+        assertTrue(registry.isActive("bob", other.getSessionId()));
+    }
+
+    @Test
+    public void testExpiredSessions_AreInactive() {
+        SessionRegistry registry = new SessionRegistry(5);
+        SessionInfo expired = registry.register("alice", System.currentTimeMillis() - 1);
+
+        assertFalse(registry.isActive("alice", expired.getSessionId()));
+        assertTrue(registry.getSessions("alice").isEmpty());
+    }
+
+    @Test
+    public void testStore_PersistsAndReloadsSessions() {
+        MapSessionStore store = new MapSessionStore();
+        long now = System.currentTimeMillis();
+        store.save(new SessionInfo("expired", "alice", now - 2_000, now - 1_000));
+        store.save(new SessionInfo("old", "alice", now - 3_000, now + 60_000));
+        store.save(new SessionInfo("new", "alice", now - 1_000, now + 60_000));
+        store.save(new SessionInfo("newer", "alice", now - 500, now + 60_000));
+
+        SessionRegistry registry = new SessionRegistry(2, store);
+
+        assertEquals(List.of("new", "newer"), registry.getSessions("alice").stream().map(SessionInfo::getSessionId).toList());
+        assertFalse(store.sessions.containsKey("old"));
+
+        SessionInfo latest = registry.register("alice", now + 60_000);
+        assertTrue(store.sessions.containsKey(latest.getSessionId()));
+        assertFalse(store.sessions.containsKey("new"));
+        registry.revoke("alice", latest.getSessionId());
+        assertFalse(store.sessions.containsKey(latest.getSessionId()));
+    }
+
+    @Test
+    public void testRefreshToken_CheckedAgainstRegistry() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("VerySecretKey12345678901234567890");
+        JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(mock(UserDetailsService.class), jwtProperties);
+        SessionRegistry registry = new SessionRegistry(1);
+        jwtTokenProvider.setSessionRegistry(registry);
+
+        String first = jwtTokenProvider.generateRefreshToken("alice", Map.of("device", "phone"));
+        Claims claims = jwtTokenProvider.verifyRefreshToken(first);
+        assertEquals("phone", claims.get("device"));
+        assertTrue(registry.isActive("alice", claims.get(JwtTokenProvider.SESSION_CLAIM, String.class)));
+
+        // Over the limit, the first session is evicted
+        String second = jwtTokenProvider.generateRefreshToken("alice", Map.of());
+        InvalidTokenException exception = assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.verifyRefreshToken(first));
+        assertEquals("Session has been revoked", exception.getMessage());
+        assertNotNull(jwtTokenProvider.verifyRefreshToken(second));
+
+        String access = jwtTokenProvider.generateAccessToken("alice", Map.of());
+        assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.verifyRefreshToken(access));
+    }
+
+    @Test
+    public void testRotateRefreshToken_KeepsOtherDevices() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("VerySecretKey12345678901234567890");
+        JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(mock(UserDetailsService.class), jwtProperties);
+        SessionRegistry registry = new SessionRegistry(2);
+        jwtTokenProvider.setSessionRegistry(registry);
+
+        String phone = jwtTokenProvider.generateRefreshToken("alice", Map.of("device", "phone"));
+        String laptop = jwtTokenProvider.generateRefreshToken("alice", Map.of("device", "laptop"));
+        for (int i = 0; i < 10; i++) {
+            String oldPhone = phone;
+            String oldLaptop = laptop;
+            phone = jwtTokenProvider.rotateRefreshToken(jwtTokenProvider.verifyRefreshToken(phone));
+            laptop = jwtTokenProvider.rotateRefreshToken(jwtTokenProvider.verifyRefreshToken(laptop));
+
+            // Rotated tokens are rejected, also when replayed for another rotation
+            assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.verifyRefreshToken(oldPhone));
+            Claims replayed = jwtTokenProvider.getClaims(oldLaptop);
+            assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.rotateRefreshToken(replayed));
+        }
+
+        // Neither device was evicted by the other's refreshes
+        assertEquals("phone", jwtTokenProvider.verifyRefreshToken(phone).get("device"));
+        assertEquals("laptop", jwtTokenProvider.verifyRefreshToken(laptop).get("device"));
+        assertEquals(2, registry.getSessions("alice").size());
+    }
+
+    @Test
+    public void testStress_ConcurrentLoginsKeepLimit() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int loginsPerThread = 50_000;
+        int users = 10_000;
+        int limit = 3;
+        SessionRegistry registry = new SessionRegistry(limit);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < loginsPerThread; i++) {
+                    String user = "user-" + ((i * 31 + offset) % users);
+                    SessionInfo session = registry.register(user, expiresAt);
+                    registry.isActive(user, session.getSessionId());
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertEquals(users, registry.getUserCount());
+        for (int u = 0; u < users; u++) {
+            assertEquals(limit, registry.getSessions("user-" + u).size());
+        }
+    }
+
+    static class MapSessionStore implements SessionStore {
+
+        private final Map<String, SessionInfo> sessions = new ConcurrentHashMap<>();
+
+        @Override
+        public void save(SessionInfo session) {
+            sessions.put(session.getSessionId(), session);
+        }
+
+        @Override
+        public void delete(SessionInfo session) {
+            sessions.remove(session.getSessionId());
+        }
+
+        @Override
+        public List<SessionInfo> loadAll() {
+            return new ArrayList<>(sessions.values());
+        }
+    }
+}
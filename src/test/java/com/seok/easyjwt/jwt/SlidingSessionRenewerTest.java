@@ -0,0 +1,73 @@
+package com.seok.easyjwt.jwt;
+
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class SlidingSessionRenewerTest {
+
+    private static final String SECRET = "VerySecretKey12345678901234567890";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtProperties jwtProperties;
+
+    @BeforeEach
+    public void setUp() {
+        jwtProperties = new JwtProperties();
+        jwtProperties.setSecret(SECRET);
+        jwtProperties.setAccessTokenExpiration(30L);
+        jwtProperties.getSlidingSession().setWindow(60L);
+        jwtProperties.getSlidingSession().setMinInterval(10L);
+
+        jwtTokenProvider = new JwtTokenProvider(mock(UserDetailsService.class), jwtProperties);
+    }
+
+    @Test
+    public void testRenewIfExpiring_WithinWindow() {
+        SlidingSessionRenewer renewer = new SlidingSessionRenewer(jwtTokenProvider, jwtProperties.getSlidingSession());
+        String token = jwtTokenProvider.generateAccessToken("testUser", Map.of("tenant", "acme"));
+
+        String renewed = renewer.renewIfExpiring(parse(token));
+
+        assertNotNull(renewed);
+        Claims renewedClaims = parse(renewed);
+        assertEquals("testUser", renewedClaims.getSubject());
+        assertEquals("acme", renewedClaims.get("tenant"));
+        assertEquals(TokenType.ACCESS.name(), renewedClaims.get(JwtTokenProvider.TYPE_CLAIM));
+    }
+
+    @Test
+    public void testRenewIfExpiring_OutsideWindow() {
+        jwtProperties.getSlidingSession().setWindow(5L);
+        SlidingSessionRenewer renewer = new SlidingSessionRenewer(jwtTokenProvider, jwtProperties.getSlidingSession());
+        String token = jwtTokenProvider.generateAccessToken("testUser", null);
+
+        assertNull(renewer.renewIfExpiring(parse(token)));
+    }
+
+    @Test
+    public void testRenewIfExpiring_RateLimitedPerSubject() {
+        SlidingSessionRenewer renewer = new SlidingSessionRenewer(jwtTokenProvider, jwtProperties.getSlidingSession());
+        Claims claims = parse(jwtTokenProvider.generateAccessToken("testUser", null));
+
+        assertNotNull(renewer.renewIfExpiring(claims));
+        assertNull(renewer.renewIfExpiring(claims));
+        assertNotNull(renewer.renewIfExpiring(parse(jwtTokenProvider.generateAccessToken("otherUser", null))));
+    }
+
+    private Claims parse(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+}
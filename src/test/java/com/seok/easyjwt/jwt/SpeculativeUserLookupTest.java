@@ -0,0 +1,96 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.auth.SpeculativeUserLookup;
+import com.seok.easyjwt.exception.InvalidTokenException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class SpeculativeUserLookupTest {
+
+    private UserDetailsService userDetailsService;
+    private JwtTokenProvider jwtTokenProvider;
+    private SpeculativeUserLookup speculativeUserLookup;
+
+    @BeforeEach
+    public void setUp() {
+        userDetailsService = mock(UserDetailsService.class);
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("VerySecretKey12345678901234567890");
+        jwtTokenProvider = new JwtTokenProvider(userDetailsService, jwtProperties);
+        speculativeUserLookup = new SpeculativeUserLookup(userDetailsService, 1);
+        jwtTokenProvider.setSpeculativeUserLookup(speculativeUserLookup);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        speculativeUserLookup.close();
+    }
+
+    @Test
+    public void testGetAuthentication_UsesSpeculativeLookup() {
+        UserDetails user = new User("testUser", "", List.of());
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(user);
+        String token = jwtTokenProvider.generateAccessToken("testUser", Map.of());
+
+        Authentication authentication = jwtTokenProvider.getAuthentication(token);
+
+        assertSame(user, authentication.getPrincipal());
+        verify(userDetailsService, times(1)).loadUserByUsername("testUser");
+    }
+
+    @Test
+    public void testGetAuthentication_PropagatesLookupFailure() {
+        when(userDetailsService.loadUserByUsername("ghost")).thenThrow(new UsernameNotFoundException("JwtUser Not Found"));
+        String token = jwtTokenProvider.generateAccessToken("ghost", Map.of());
+
+        assertThrows(UsernameNotFoundException.class, () -> jwtTokenProvider.getAuthentication(token));
+    }
+
+    @Test
+    public void testGetAuthentication_ForgedTokenRejected() {
+        when(userDetailsService.loadUserByUsername(anyString())).thenReturn(new User("admin", "", List.of()));
+        String token = jwtTokenProvider.generateAccessToken("admin", Map.of());
+        String forged = token.substring(0, token.lastIndexOf('.') + 1) + "forged";
+
+        assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.getAuthentication(forged));
+    }
+
+    @Test
+    public void testStart_BoundedByPermits() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(userDetailsService.loadUserByUsername(anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new User(invocation.getArgument(0), "", List.of());
+        });
+
+        CompletableFuture<UserDetails> first = speculativeUserLookup.start("first");
+        assertNotNull(first);
+        // The only permit is taken, so further lookups are declined instead of queued
+        assertNull(speculativeUserLookup.start("second"));
+
+        // Authentication still works by falling back to a regular lookup after verification
+        String token = jwtTokenProvider.generateAccessToken("second", Map.of());
+        CompletableFuture<Authentication> authentication = CompletableFuture.supplyAsync(() -> jwtTokenProvider.getAuthentication(token));
+        release.countDown();
+
+        assertEquals("second", authentication.get(5, TimeUnit.SECONDS).getName());
+        assertEquals("first", speculativeUserLookup.join(first).getUsername());
+    }
+}
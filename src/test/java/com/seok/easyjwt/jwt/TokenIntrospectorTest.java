@@ -0,0 +1,159 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.auth.JwtUserDetails;
+import com.seok.easyjwt.introspect.IntrospectionResult;
+import com.seok.easyjwt.introspect.TokenIntrospectionFilter;
+import com.seok.easyjwt.introspect.TokenIntrospector;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TokenIntrospectorTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtProperties jwtProperties;
+    private UserDetailsService userDetailsService;
+    private TokenIntrospector tokenIntrospector;
+
+    @BeforeEach
+    public void setUp() {
+        jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("VerySecretKey12345678901234567890");
+
+        userDetailsService = mock(UserDetailsService.class);
+        JwtUserDetails userDetails = mock(JwtUserDetails.class);
+        when(userDetails.getAuthorities()).thenReturn(Collections.emptyList());
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(userDetails);
+        when(userDetailsService.loadUserByUsername("ghost")).thenThrow(new UsernameNotFoundException("JwtUser Not Found"));
+
+        jwtTokenProvider = new JwtTokenProvider(userDetailsService, jwtProperties);
+        tokenIntrospector = new TokenIntrospector(jwtTokenProvider, userDetailsService, 4, 100);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tokenIntrospector.close();
+    }
+
+    @Test
+    public void testIntrospect_MixedBatch() {
+        String valid = jwtTokenProvider.generateAccessToken("testUser", null);
+        jwtProperties.setAccessTokenExpiration(-1L);
+        String expired = jwtTokenProvider.generateAccessToken("testUser", null);
+
+        List<IntrospectionResult> results = tokenIntrospector.introspect(Arrays.asList(valid, expired, "invalid.token.here", null));
+
+        assertEquals(IntrospectionResult.Status.VALID, results.get(0).getStatus());
+        assertEquals("testUser", results.get(0).getClaims().getSubject());
+        assertNotNull(results.get(0).getUserDetails());
+        assertEquals(IntrospectionResult.Status.EXPIRED, results.get(1).getStatus());
+        assertEquals(IntrospectionResult.Status.INVALID, results.get(2).getStatus());
+        assertEquals(IntrospectionResult.Status.INVALID, results.get(3).getStatus());
+    }
+
+    @Test
+    public void testIntrospect_DeduplicatesUserLookups() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tokens.add(jwtTokenProvider.generateAccessToken("testUser", null));
+        }
+        tokens.add(jwtTokenProvider.generateAccessToken("ghost", null));
+
+        List<IntrospectionResult> results = tokenIntrospector.introspect(tokens);
+
+        assertTrue(results.subList(0, 20).stream().allMatch(IntrospectionResult::isActive));
+        assertEquals(IntrospectionResult.Status.INVALID, results.get(20).getStatus());
+        verify(userDetailsService, times(1)).loadUserByUsername("testUser");
+        verify(userDetailsService, times(1)).loadUserByUsername("ghost");
+    }
+
+    @Test
+    public void testIntrospect_RejectsNonAccessTokens() {
+        jwtProperties.getPurposes().put("password-reset", new JwtProperties.Purpose());
+        String refresh = jwtTokenProvider.generateRefreshToken("testUser", null);
+        String purpose = jwtTokenProvider.generatePurposeToken("testUser", "password-reset", null);
+
+        List<IntrospectionResult> results = tokenIntrospector.introspect(Arrays.asList(refresh, purpose), false);
+
+        assertEquals(IntrospectionResult.Status.INVALID, results.get(0).getStatus());
+        assertEquals(IntrospectionResult.Status.INVALID, results.get(1).getStatus());
+        assertFalse(results.get(0).isActive());
+        assertFalse(results.get(1).isActive());
+    }
+
+    @Test
+    public void testIntrospect_UnexpectedFailureOnlyFailsItsToken() {
+        String valid = jwtTokenProvider.generateAccessToken("testUser", null);
+        String broken = jwtTokenProvider.generateAccessToken("broken", null);
+        jwtTokenProvider.setTokenVersionSource(username -> {
+            if ("broken".equals(username)) {
+                throw new IllegalStateException("Version store unavailable");
+            }
+            return 0L;
+        });
+
+        List<IntrospectionResult> results = tokenIntrospector.introspect(Arrays.asList(valid, broken), false);
+
+        assertEquals(IntrospectionResult.Status.VALID, results.get(0).getStatus());
+        assertEquals(IntrospectionResult.Status.INVALID, results.get(1).getStatus());
+        assertEquals("Token verification failed", results.get(1).getError());
+    }
+
+    @Test
+    public void testIntrospect_BatchTooLarge() {
+        List<String> tokens = Collections.nCopies(101, "token");
+
+        assertThrows(IllegalArgumentException.class, () -> tokenIntrospector.introspect(tokens));
+    }
+
+    @Test
+    public void testEndpoint() throws Exception {
+        TokenIntrospectionFilter filter = new TokenIntrospectionFilter(tokenIntrospector, "/easy-jwt/introspect");
+        String valid = jwtTokenProvider.generateAccessToken("testUser", null);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/easy-jwt/introspect");
+        request.setContent(("{\"tokens\": [\"" + valid + "\", \"invalid.token.here\"]}").getBytes());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = mock(FilterChain.class);
+
+        filter.doFilter(request, response, filterChain);
+
+        assertEquals(200, response.getStatus());
+        String body = response.getContentAsString();
+        assertTrue(body.startsWith("{\"results\":[{\"active\":true,\"status\":\"VALID\",\"sub\":\"testUser\""), body);
+        assertTrue(body.contains("{\"active\":false,\"status\":\"INVALID\""), body);
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    public void testEndpoint_RejectsOversizedBatchWhileReading() throws Exception {
+        TokenIntrospectionFilter filter = new TokenIntrospectionFilter(tokenIntrospector, "/easy-jwt/introspect");
+        StringBuilder body = new StringBuilder("{\"tokens\": [");
+        for (int i = 0; i < 101; i++) {
+            body.append(i == 0 ? "" : ", ").append("\"token\"");
+        }
+        // Malformed beyond the limit, so the request only fails with 400 if reading stops at the limit
+        body.append(", oops");
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/easy-jwt/introspect");
+        request.setContent(body.toString().getBytes());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, mock(FilterChain.class));
+
+        assertEquals(400, response.getStatus());
+        assertEquals("Batch exceeds the maximum of 100 tokens", response.getErrorMessage());
+    }
+}
@@ -0,0 +1,128 @@
+package com.seok.easyjwt.jwt;
+
+
+import com.seok.easyjwt.exception.InvalidTokenException;
+import com.seok.easyjwt.introspect.IntrospectionResult;
+import com.seok.easyjwt.introspect.TokenIntrospector;
+import com.seok.easyjwt.version.InMemoryTokenVersionSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TokenVersionTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private InMemoryTokenVersionSource versionSource;
+
+    @BeforeEach
+    public void setUp() {
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(anyString())).thenReturn(new User("testUser", "", List.of()));
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("VerySecretKey12345678901234567890");
+        jwtTokenProvider = new JwtTokenProvider(userDetailsService, jwtProperties);
+        versionSource = new InMemoryTokenVersionSource();
+        jwtTokenProvider.setTokenVersionSource(versionSource);
+    }
+
+    @Test
+    public void testBump_RevokesOlderTokens() {
+        String oldToken = jwtTokenProvider.generateAccessToken("testUser", Map.of());
+        assertNotNull(jwtTokenProvider.getAuthentication(oldToken));
+
+        assertEquals(1L, versionSource.bump("testUser"));
+
+        InvalidTokenException exception = assertThrows(InvalidTokenException.class, () -> jwtTokenProvider.getAuthentication(oldToken));
+        assertEquals("Token has been revoked", exception.getMessage());
+
+        String newToken = jwtTokenProvider.generateAccessToken("testUser", Map.of());
+        assertEquals(1L, ((Number) jwtTokenProvider.getClaims(newToken).get(JwtTokenProvider.VERSION_CLAIM)).longValue());
+        assertNotNull(jwtTokenProvider.getAuthentication(newToken));
+    }
+
+    @Test
+    public void testBump_RevokesOlderTokensForIntrospection() {
+        String oldToken = jwtTokenProvider.generateAccessToken("testUser", Map.of());
+        versionSource.bump("testUser");
+        String newToken = jwtTokenProvider.generateAccessToken("testUser", Map.of());
+
+        try (TokenIntrospector introspector = new TokenIntrospector(jwtTokenProvider, mock(UserDetailsService.class), 1, 10)) {
+            List<IntrospectionResult> results = introspector.introspect(List.of(oldToken, newToken), false);
+
+            assertEquals(IntrospectionResult.Status.INVALID, results.get(0).getStatus());
+            assertEquals(IntrospectionResult.Status.VALID, results.get(1).getStatus());
+        }
+    }
+
+    @Test
+    public void testRenewedToken_CarriesCurrentVersion() {
+        String token = jwtTokenProvider.generateAccessToken("testUser", Map.of("role", "admin"));
+        versionSource.bump("testUser");
+
+        // Renewal must not copy the stale version over
+        String renewed = jwtTokenProvider.renewAccessToken(jwtTokenProvider.getClaims(token));
+        assertNotNull(jwtTokenProvider.getAuthentication(renewed));
+        assertEquals("admin", jwtTokenProvider.getClaims(renewed).get("role"));
+    }
+
+    @Test
+    public void testListenerAndApply() {
+        List<String> pushed = new ArrayList<>();
+        versionSource.addListener((username, version) -> pushed.add(username + ":" + version));
+
+        versionSource.bump("alice");
+        versionSource.bump("alice");
+        assertEquals(List.of("alice:1", "alice:2"), pushed);
+
+        // Versions pushed from other nodes only move forward and are not re-published
+        InMemoryTokenVersionSource otherNode = new InMemoryTokenVersionSource();
+        otherNode.apply("alice", 2);
+        otherNode.apply("alice", 1);
+        assertEquals(2L, otherNode.getVersion("alice"));
+        assertEquals(0L, otherNode.getVersion("bob"));
+    }
+
+    @Test
+    public void testLoader_ReloadsAfterTtl() throws Exception {
+        AtomicLong stored = new AtomicLong(3);
+        AtomicLong loads = new AtomicLong();
+        InMemoryTokenVersionSource source = new InMemoryTokenVersionSource(username -> {
+            loads.incrementAndGet();
+            return stored.get();
+        }, Duration.ofMillis(50));
+
+        assertEquals(3L, source.getVersion("alice"));
+        assertEquals(3L, source.getVersion("alice"));
+        assertEquals(1, loads.get());
+
+        stored.set(5);
+        Thread.sleep(80);
+        assertEquals(5L, source.getVersion("alice"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testLoader_PurgesExpiredEntries() throws Exception {
+        InMemoryTokenVersionSource source = new InMemoryTokenVersionSource(username -> 1L, Duration.ofMillis(200));
+        for (int i = 0; i < 1000; i++) {
+            source.getVersion("user" + i);
+        }
+        assertEquals(1000, source.getCachedCount());
+
+        Thread.sleep(300);
+        assertEquals(1L, source.getVersion("alice"));
+        assertEquals(1, source.getCachedCount());
+    }
+}